@@ -0,0 +1,65 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.InventoryStatus;
+import com.producttrial.back.service.serviceimpl.JwtServiceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Fixtures shared by the benchmarks: products filled like real catalog rows, and a JWT service configured as in
+ * application.properties.
+ */
+final class BenchmarkData {
+    static final String JWT_SECRET = "ttttttttttttttttttttttttttttttttttt";
+    static final long JWT_EXPIRATION = 3_600_000;
+
+    private BenchmarkData() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    static Product product(long id) {
+        return Product.builder()
+                .id(id)
+                .code("P" + id)
+                .name("Produit " + id)
+                .description("Description du produit " + id + ", assez longue pour ressembler à une vraie fiche")
+                .image("https://cdn.example.com/products/" + id + ".png")
+                .category("Accessories")
+                .price(10.0 + id % 100)
+                .quantity((int) (id % 50))
+                .internalReference("REF-" + id)
+                .shellId(id % 10)
+                .inventoryStatus(InventoryStatus.values()[(int) (id % InventoryStatus.values().length)])
+                .rating((double) (id % 5))
+                .createdAt(1_700_000_000_000L)
+                .updatedAt(1_700_000_000_000L)
+                .build();
+    }
+
+    static ProductDTO productDto(long id) {
+        return ProductDTO.builder()
+                .id(id)
+                .code("P" + id)
+                .name("Produit " + id)
+                .description("Description du produit " + id + ", assez longue pour ressembler à une vraie fiche")
+                .image("https://cdn.example.com/products/" + id + ".png")
+                .category("Accessories")
+                .price(10.0 + id % 100)
+                .quantity((int) (id % 50))
+                .internalReference("REF-" + id)
+                .shellId(id % 10)
+                .inventoryStatus(InventoryStatus.values()[(int) (id % InventoryStatus.values().length)])
+                .rating((double) (id % 5))
+                .build();
+    }
+
+    // Mêmes réglages que l'application ; les champs @Value sont renseignés à la main, sans contexte Spring
+    static JwtServiceImpl jwtService() {
+        JwtServiceImpl jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", JWT_EXPIRATION);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+}
@@ -0,0 +1,66 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.enums.Role;
+import com.producttrial.back.security.JwtAuthenticationFilter;
+import com.producttrial.back.service.serviceimpl.JwtServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost added to every authenticated request by the JWT filter: header parsing, token verification (cached after the
+ * first request) and creation of the authentication, with an empty filter chain behind it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+    // Comme SecurityContextHolderFilter en fin de requête : chaque appel repart d'un contexte vide
+    private static final FilterChain EMPTY_CHAIN = (request, response) -> SecurityContextHolder.clearContext();
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest invalidTokenRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtServiceImpl jwtService = BenchmarkData.jwtService();
+        filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry());
+        authenticatedRequest = new MockHttpServletRequest("GET", "/cart");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + jwtService.generateToken(42L, List.of(Role.USER)));
+        invalidTokenRequest = new MockHttpServletRequest("GET", "/cart");
+        invalidTokenRequest.addHeader("Authorization", "Bearer not.a.token");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void validToken() throws ServletException, IOException {
+        filter.doFilter(authenticatedRequest, response, EMPTY_CHAIN);
+    }
+
+    @Benchmark
+    public void invalidToken() throws ServletException, IOException {
+        filter.doFilter(invalidTokenRequest, response, EMPTY_CHAIN);
+    }
+}
@@ -0,0 +1,53 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.enums.Role;
+import com.producttrial.back.service.serviceimpl.JwtServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing and verification. {@code extractUserId} always checks the HMAC signature, while {@code isValidToken}
+ * goes through the cache of verified tokens: the gap between both is what the cache saves on each request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private JwtServiceImpl jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkData.jwtService();
+        token = jwtService.generateToken(42L, List.of(Role.USER));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(42L, List.of(Role.USER));
+    }
+
+    @Benchmark
+    public String extractUserId() {
+        return jwtService.extractUserId(token);
+    }
+
+    @Benchmark
+    public boolean isValidToken() {
+        return jwtService.isValidToken(token);
+    }
+}
@@ -0,0 +1,63 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.entity.CartItem;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.mapper.CartItemMapper;
+import com.producttrial.back.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversions run for every product and cart line returned by the API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+    private Product product;
+    private ProductDTO productDto;
+    private CartItem cartItem;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(42);
+        productDto = BenchmarkData.productDto(42);
+        cartItem = CartItem.builder()
+                .id(7L)
+                .product(product)
+                .quantity(3)
+                .createdAt(1_700_000_000_000L)
+                .updatedAt(1_700_000_000_000L)
+                .build();
+    }
+
+    @Benchmark
+    public ProductDTO productToDto() {
+        return ProductMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return ProductMapper.toEntity(productDto);
+    }
+
+    @Benchmark
+    public CartItemDTO cartItemToDto() {
+        return CartItemMapper.toDto(cartItem);
+    }
+}
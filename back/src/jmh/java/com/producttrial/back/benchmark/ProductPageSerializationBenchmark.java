@@ -0,0 +1,56 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON body of {@code GET /products}: a {@link Page} of products written to bytes, as the message converter does.
+ * 50 is the default page size of the endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPageSerializationBenchmark {
+    // Les champs @Param doivent être publics : JMH les renseigne depuis le code qu'il génère
+    @Param({"10", "50", "200"})
+    public int pageSize;
+
+    private JsonMapper jsonMapper;
+    private Page<ProductDTO> page;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        List<ProductDTO> products = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            products.add(BenchmarkData.productDto(id));
+        }
+        page = new PageImpl<>(products, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,63 @@
+package com.producttrial.back.benchmark;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over an in-memory catalog of several hundred thousand products, as served by
+ * {@code GET /products/search}. Sampled so that the p99 latency can be read from the results.
+ * Queries go from a term found in a quarter of the catalog to a selective one, with and without prefix matching.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProductSearchIndexBenchmark {
+    private static final String[] CATEGORIES = {"Accessories", "Fitness", "Clothing", "Electronics"};
+    private static final String[] WORDS = {"laine", "cuir", "coton", "bambou", "acier", "verre", "lin", "soie"};
+
+    // Les champs @Param doivent être publics : JMH les renseigne depuis le code qu'il génère
+    @Param("300000")
+    public int catalogSize;
+
+    @Param({"accessories", "produit acc", "cuir fitness ", "produit 4242 "})
+    public String query;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        // Le repository ne sert qu'aux reconstructions : l'index est rempli directement
+        index = new ProductSearchIndex(null);
+        for (long id = 1; id <= catalogSize; id++) {
+            ProductDTO product = BenchmarkData.productDto(id);
+            product.setCategory(CATEGORIES[(int) (id % CATEGORIES.length)]);
+            product.setName(product.getName() + " en " + WORDS[(int) (id / CATEGORIES.length % WORDS.length)]);
+            index.index(product);
+        }
+    }
+
+    @Benchmark
+    public List<ProductSearchHitDTO> search() {
+        return index.search(query, 20);
+    }
+}
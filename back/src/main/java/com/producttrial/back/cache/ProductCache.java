@@ -0,0 +1,242 @@
+package com.producttrial.back.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process read cache for the catalog, placed in front of {@link com.producttrial.back.repository.ProductRepository}.
+ * It holds single products by id, their versions, the first listing pages, the unfiltered facets and the catalog version. Every product mutation
+ * must go through {@link #evictProduct(Long)} or {@link #invalidateAll()} so that readers never see a stale catalog.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+    private final Cache<Long, ProductDTO> products;
+    private final Cache<Pageable, Page<ProductDTO>> pages;
+    // Facettes non filtrées, par largeur de tranche de prix
+    private final Cache<Double, ProductFacetsDTO> facets;
+    // updatedAt par id, lu pour répondre aux requêtes conditionnelles sans charger le produit
+    private final Cache<Long, Long> versions;
+    private final int maxCachedPage;
+
+    // Incrémenté à chaque invalidation : un chargement commencé avant une invalidation n'est pas gardé en cache
+    private final AtomicLong generation = new AtomicLong();
+    // Version du catalogue, valable tant que la génération n'a pas changé
+    private volatile CatalogVersion catalogVersion;
+
+    private record CatalogVersion(long generation, String value) {
+    }
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.page-max-size:500}") long pageMaxSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl,
+                        @Value("${product.cache.max-cached-page:10}") int maxCachedPage) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.facets = Caffeine.newBuilder()
+                .maximumSize(16)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxCachedPage = maxCachedPage;
+    }
+
+    /**
+     * Returns the product with the given id from the cache, loading it with the given loader on a miss.
+     * Missing products are not cached.
+     *
+     * @param id the unique identifier of the product
+     * @param loader the function loading the product from the database on a cache miss
+     * @return an Optional containing the product if found, or an empty Optional otherwise
+     */
+    public Optional<ProductDTO> getProduct(Long id, Function<Long, Optional<ProductDTO>> loader) {
+        ProductDTO cached = products.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long startGeneration = generation.get();
+        Optional<ProductDTO> loaded = loader.apply(id);
+        loaded.ifPresent(dto -> {
+            products.put(id, dto);
+            if (generation.get() != startGeneration) {
+                products.asMap().remove(id, dto);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Returns a listing page from the cache, loading it with the given loader on a miss.
+     * Only the first pages (up to {@code product.cache.max-cached-page}) are cached, deeper pages always hit the database.
+     *
+     * @param pageable the pagination and sorting information, used as cache key
+     * @param loader the function loading the page from the database on a cache miss
+     * @return the requested page of products
+     */
+    public Page<ProductDTO> getPage(Pageable pageable, Function<Pageable, Page<ProductDTO>> loader) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() > maxCachedPage) {
+            return loader.apply(pageable);
+        }
+        Page<ProductDTO> cached = pages.getIfPresent(pageable);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        Page<ProductDTO> loaded = loader.apply(pageable);
+        pages.put(pageable, loaded);
+        if (generation.get() != startGeneration) {
+            pages.asMap().remove(pageable, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the unfiltered facets from the cache, computing them with the given loader on a miss.
+     *
+     * @param priceBucketWidth the width of the price buckets, used as cache key
+     * @param loader the function computing the facets from the database on a cache miss
+     * @return the facets of the whole catalog
+     */
+    public ProductFacetsDTO getFacets(double priceBucketWidth, Function<Double, ProductFacetsDTO> loader) {
+        ProductFacetsDTO cached = facets.getIfPresent(priceBucketWidth);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        ProductFacetsDTO loaded = loader.apply(priceBucketWidth);
+        facets.put(priceBucketWidth, loaded);
+        if (generation.get() != startGeneration) {
+            facets.asMap().remove(priceBucketWidth, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the last modification time of the given product from the cache, loading it with the given loader on a miss.
+     * Missing products are not cached.
+     *
+     * @param id the unique identifier of the product
+     * @param loader the function loading the modification time from the database on a cache miss
+     * @return an Optional containing the modification time if the product exists, or an empty Optional otherwise
+     */
+    public Optional<Long> getProductVersion(Long id, Function<Long, Optional<Long>> loader) {
+        Long cached = versions.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long startGeneration = generation.get();
+        Optional<Long> loaded = loader.apply(id);
+        loaded.ifPresent(updatedAt -> {
+            versions.put(id, updatedAt);
+            if (generation.get() != startGeneration) {
+                versions.asMap().remove(id, updatedAt);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Returns the version of the whole catalog, computing it with the given loader when a product changed since
+     * the last computation.
+     *
+     * @param loader the function computing the version from the database
+     * @return a value that changes whenever any product is created, updated or deleted
+     */
+    public String getCatalogVersion(Supplier<String> loader) {
+        long startGeneration = generation.get();
+        CatalogVersion cached = catalogVersion;
+        if (cached != null && cached.generation() == startGeneration) {
+            return cached.value();
+        }
+        String loaded = loader.get();
+        // Associée à la génération lue avant le chargement : une invalidation concurrente la rend aussitôt périmée
+        catalogVersion = new CatalogVersion(startGeneration, loaded);
+        return loaded;
+    }
+
+    /**
+     * Evicts the given product, every cached listing page and the facets, since a created, updated
+     * or deleted product can move the content of any page and change any count.
+     *
+     * @param id the unique identifier of the product that changed
+     */
+    public void evictProduct(Long id) {
+        generation.incrementAndGet();
+        products.invalidate(id);
+        versions.invalidate(id);
+        pages.invalidateAll();
+        facets.invalidateAll();
+        log.debug("Evicted product id={} and all listing pages from cache", id);
+    }
+
+    /**
+     * Evicts several products at once and every cached listing page.
+     * Used when a batch of invalidations is received from another node.
+     *
+     * @param ids the unique identifiers of the products that changed
+     */
+    public void evictProducts(Collection<Long> ids) {
+        generation.incrementAndGet();
+        products.invalidateAll(ids);
+        versions.invalidateAll(ids);
+        pages.invalidateAll();
+        facets.invalidateAll();
+        log.debug("Evicted {} products and all listing pages from cache", ids.size());
+    }
+
+    /**
+     * Empties the whole cache.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        products.invalidateAll();
+        versions.invalidateAll();
+        pages.invalidateAll();
+        facets.invalidateAll();
+        log.debug("Invalidated whole product cache");
+    }
+
+    public CacheStats productStats() {
+        return products.stats();
+    }
+
+    public CacheStats pageStats() {
+        return pages.stats();
+    }
+
+    public CacheStats facetStats() {
+        return facets.stats();
+    }
+
+    public CacheStats versionStats() {
+        return versions.stats();
+    }
+}
@@ -0,0 +1,245 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.enums.ProductChangeType;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the {@link ProductCache} of every node consistent through Postgres LISTEN/NOTIFY.
+ * <p>
+ * Local product changes are queued and sent by a single background thread, which coalesces bursts into
+ * one NOTIFY per poll cycle. The same thread listens on the channel and evicts the ids received from other nodes;
+ * it also publishes them as a {@link RemoteProductsChangedEvent} so that the search indexes reload them.
+ * The listening connection is opened outside of the Hikari pool so that it never takes a request connection.
+ * If the connection is lost, the whole cache is flushed and the indexes reloaded because notifications
+ * may have been missed.
+ */
+@Component
+@Profile("!test")
+@ConditionalOnProperty(name = "product.cache.sync.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ProductCacheSync implements SmartLifecycle {
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String FLUSH_ALL = "*";
+    // La limite d'un payload NOTIFY est 8000 octets
+    private static final int MAX_PAYLOAD_LENGTH = 7500;
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentLinkedQueue<String> outgoing = new ConcurrentLinkedQueue<>();
+    private final Set<String> pending = new LinkedHashSet<>();
+
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration pollInterval;
+    private final int maxIdsPerBatch;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ProductCacheSync(ProductCache productCache,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${spring.datasource.url}") String url,
+                            @Value("${spring.datasource.username:}") String username,
+                            @Value("${spring.datasource.password:}") String password,
+                            @Value("${product.cache.sync.channel:product_cache}") String channel,
+                            @Value("${product.cache.sync.poll-interval:200ms}") Duration pollInterval,
+                            @Value("${product.cache.sync.max-ids-per-batch:500}") int maxIdsPerBatch) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache sync channel name: " + channel);
+        }
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.maxIdsPerBatch = maxIdsPerBatch;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        outgoing.add(event.type() == ProductChangeType.ALL_DELETED ? FLUSH_ALL : String.valueOf(event.productId()));
+    }
+
+    @Override
+    public void start() {
+        if (!url.startsWith("jdbc:postgresql:")) {
+            log.warn("Product cache sync disabled: datasource is not PostgreSQL ({})", url);
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "product-cache-sync");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Product cache sync started on channel {} (node {})", channel, nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long backoff = pollInterval.toMillis();
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Des notifications ont pu être perdues avant (re)connexion
+                productCache.invalidateAll();
+                if (reconnecting) {
+                    // Au premier démarrage, les index sont construits par ApplicationReadyEvent
+                    eventPublisher.publishEvent(RemoteProductsChangedEvent.all());
+                }
+                reconnecting = true;
+                backoff = pollInterval.toMillis();
+
+                while (running) {
+                    flushOutgoing(connection);
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        applyRemote(Arrays.stream(notifications).map(PGNotification::getParameter).toList());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Product cache sync connection lost, flushing cache and retrying in {} ms: {}", backoff, e.getMessage());
+                productCache.invalidateAll();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    private void flushOutgoing(Connection connection) throws SQLException {
+        String id;
+        while ((id = outgoing.poll()) != null) {
+            pending.add(id);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> payloads = pending.contains(FLUSH_ALL) || pending.size() > maxIdsPerBatch
+                ? List.of(nodeId + ":" + FLUSH_ALL)
+                : buildPayloads(pending);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : payloads) {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        }
+        // Vidé seulement après envoi : en cas d'erreur, les ids seront renvoyés après reconnexion
+        pending.clear();
+    }
+
+    /**
+     * @return the identifier of this node, written before the ':' of every payload it sends
+     */
+    String nodeId() {
+        return nodeId;
+    }
+
+    // Payloads "nodeId:id,id,..." de moins de MAX_PAYLOAD_LENGTH caractères
+    List<String> buildPayloads(Collection<String> ids) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(nodeId).append(':');
+        int headerLength = current.length();
+        for (String id : ids) {
+            if (current.length() + id.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(current.toString());
+                current.setLength(headerLength);
+            }
+            if (current.length() > headerLength) {
+                current.append(',');
+            }
+            current.append(id);
+        }
+        payloads.add(current.toString());
+        return payloads;
+    }
+
+    // Applique les payloads reçus, en ignorant ceux envoyés par ce nœud
+    void applyRemote(List<String> payloads) {
+        Set<Long> ids = new HashSet<>();
+        for (String payload : payloads) {
+            int separator = payload.indexOf(':');
+            if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+                continue;
+            }
+            String body = payload.substring(separator + 1);
+            if (body.equals(FLUSH_ALL)) {
+                productCache.invalidateAll();
+                eventPublisher.publishEvent(RemoteProductsChangedEvent.all());
+                log.debug("Flushed product cache on remote request");
+                return;
+            }
+            for (String id : body.split(",")) {
+                try {
+                    ids.add(Long.parseLong(id));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid product id in cache sync payload: {}", id);
+                }
+            }
+        }
+        if (ids.size() > maxIdsPerBatch) {
+            productCache.invalidateAll();
+            eventPublisher.publishEvent(RemoteProductsChangedEvent.all());
+        } else if (!ids.isEmpty()) {
+            productCache.evictProducts(ids);
+            eventPublisher.publishEvent(RemoteProductsChangedEvent.of(ids));
+        }
+    }
+}
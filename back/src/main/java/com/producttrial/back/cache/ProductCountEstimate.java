@@ -0,0 +1,89 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate number of products, used by listings that do not want to pay a count(*) per request.
+ * The value is kept up to date by product change events and fully recounted in the background
+ * once it is older than {@code product.count.estimate-ttl}, to absorb changes made by other nodes.
+ */
+@Component
+@Slf4j
+public class ProductCountEstimate {
+    private static final long UNKNOWN = -1;
+
+    private final ProductRepository productRepository;
+    // Exécuteur de @Async (threads virtuels) : le count(*) bloquant n'occupe pas le pool commun
+    private final Executor applicationTaskExecutor;
+    private final long ttlMillis;
+
+    private final AtomicLong estimate = new AtomicLong(UNKNOWN);
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long refreshedAt;
+
+    public ProductCountEstimate(ProductRepository productRepository, Executor applicationTaskExecutor,
+                                @Value("${product.count.estimate-ttl:5m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Returns the current estimate. The first call counts synchronously, later calls never wait:
+     * a stale value triggers a background recount and is returned as is.
+     *
+     * @return the approximate number of products
+     */
+    public long get() {
+        long current = estimate.get();
+        if (current == UNKNOWN) {
+            return refresh();
+        }
+        if (System.currentTimeMillis() - refreshedAt > ttlMillis && refreshing.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                        try {
+                            refresh();
+                        } finally {
+                            refreshing.set(false);
+                        }
+                    }, applicationTaskExecutor)
+                    .exceptionally(e -> {
+                        // Sans gravité : l'estimation actuelle reste servie, nouvel essai au prochain appel
+                        log.warn("Could not refresh product count estimate: {}", e.getMessage());
+                        return null;
+                    });
+        }
+        return current;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> estimate.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : count + 1);
+            case DELETED -> estimate.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count - 1));
+            case ALL_DELETED -> estimate.set(0);
+            default -> {
+                // une mise à jour ne change pas le nombre de produits
+            }
+        }
+    }
+
+    private long refresh() {
+        long count = productRepository.count();
+        estimate.set(count);
+        refreshedAt = System.currentTimeMillis();
+        log.debug("Refreshed product count estimate: {}", count);
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package com.producttrial.back.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// Avec spring.threads.virtual.enabled=true, l'exécuteur applicationTaskExecutor utilisé par @Async
+// crée un thread virtuel par tâche
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,148 @@
+package com.producttrial.back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of requests processed at the same time. With virtual threads the container no longer limits
+ * concurrency, so without this filter every slow client would end up waiting for one of the few database connections
+ * until the Hikari connection timeout. Requests beyond the limit wait up to {@code http.concurrency.max-wait}, then
+ * get a 503 with a Retry-After header. Runs before the security filters, so rejected requests cost nothing.
+ * <p>
+ * Unless {@code http.concurrency.max-requests} is set, the limit is the maximum size of the connection pool times
+ * {@code http.concurrency.requests-per-connection}, so that it follows the pool when the pool is resized.
+ */
+@Component
+// Avant la chaîne Spring Security, enregistrée à l'ordre -100
+@Order(-101)
+@Slf4j
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String RETRY_AFTER_SECONDS = "1";
+    // Limite utilisée quand la taille du pool de connexions n'est pas connue
+    private static final int FALLBACK_MAX_REQUESTS = 100;
+    // Partagé et sans état : un refus ne construit pas de mapper, justement quand le serveur est saturé
+    private static final ObjectWriter BODY_WRITER = new ObjectMapper().writer();
+
+    private final Semaphore permits;
+    private final int maxRequests;
+    private final long maxWaitNanos;
+
+    /**
+     * @param dataSource the datasource whose pool size gives the default limit
+     * @param maxRequests the maximum number of concurrent requests, 0 to disable the limit,
+     *                    negative to derive it from the connection pool
+     * @param requestsPerConnection the number of concurrent requests allowed per pooled connection
+     *                              when the limit is derived
+     * @param maxWait how long a request beyond the limit waits for a slot before being rejected
+     */
+    @Autowired
+    public RequestConcurrencyLimitFilter(DataSource dataSource,
+                                         @Value("${http.concurrency.max-requests:-1}") int maxRequests,
+                                         @Value("${http.concurrency.requests-per-connection:4}") int requestsPerConnection,
+                                         @Value("${http.concurrency.max-wait:1s}") Duration maxWait) {
+        this(maxRequests >= 0 ? maxRequests : derivedLimit(maximumPoolSize(dataSource), requestsPerConnection), maxWait);
+    }
+
+    public RequestConcurrencyLimitFilter(int maxRequests, Duration maxWait) {
+        this.maxRequests = maxRequests;
+        this.permits = new Semaphore(Math.max(maxRequests, 0), true);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * @param dataSource the datasource to inspect
+     * @return the maximum size of its Hikari pool, null if it is not a Hikari pool
+     */
+    static Integer maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not inspect the connection pool: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    static int derivedLimit(Integer poolSize, int requestsPerConnection) {
+        if (poolSize == null) {
+            log.warn("Connection pool size unknown, concurrent requests limited to {}", FALLBACK_MAX_REQUESTS);
+            return FALLBACK_MAX_REQUESTS;
+        }
+        return poolSize * Math.max(requestsPerConnection, 1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 0 ou moins : limite désactivée
+        return maxRequests <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Request rejected, {} requests already in progress: {} {}", maxRequests, request.getMethod(), request.getRequestURI());
+            reject(request, response);
+            return;
+        }
+        // Une requête asynchrone (SSE) rend son permis dès que le thread de la requête est libéré
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int maxRequests() {
+        return maxRequests;
+    }
+
+    public int inFlightRequests() {
+        return maxRequests - permits.availablePermits();
+    }
+
+    private static void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType("application/json");
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", 503);
+        body.put("error", "Service Unavailable");
+        body.put("message", "Too many concurrent requests, retry later");
+        body.put("path", request.getRequestURI());
+
+        BODY_WRITER.writeValue(response.getOutputStream(), body);
+    }
+}
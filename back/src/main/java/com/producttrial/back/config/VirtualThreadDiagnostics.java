@@ -0,0 +1,159 @@
+package com.producttrial.back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup check and runtime reporting for the virtual-thread execution mode ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * At startup it logs the request limit against the size of the connection pool, and warns when virtual threads run
+ * without any request limit or with a limit far above what the pool can serve. At runtime it listens to the JFR {@code jdk.VirtualThreadPinned} event: a virtual thread
+ * blocking inside a {@code synchronized} block (JDBC driver, Hibernate, logging) keeps its carrier thread, so a few of
+ * them can stall every other virtual thread. Each pinning longer than {@code threads.pinning.threshold} is counted,
+ * and logged with its stack the first time it is seen at a given place.
+ */
+@Component
+@Slf4j
+public class VirtualThreadDiagnostics {
+    private static final int MAX_REPORTED_FRAMES = 8;
+    private static final int MAX_KNOWN_SITES = 1000;
+
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final boolean monitorEnabled;
+    private final Duration threshold;
+    private final int maxRequests;
+    private final int requestsPerConnection;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    // Sommets de pile déjà signalés : chaque site de pinning n'est journalisé qu'une fois
+    private final Set<String> knownSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recording;
+
+    public VirtualThreadDiagnostics(DataSource dataSource,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                    @Value("${threads.pinning.monitor-enabled:true}") boolean monitorEnabled,
+                                    @Value("${threads.pinning.threshold:20ms}") Duration threshold,
+                                    RequestConcurrencyLimitFilter requestLimit,
+                                    @Value("${http.concurrency.requests-per-connection:4}") int requestsPerConnection) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.monitorEnabled = monitorEnabled;
+        this.threshold = threshold;
+        this.maxRequests = requestLimit.maxRequests();
+        this.requestsPerConnection = requestsPerConnection;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!virtualThreads) {
+            log.info("Virtual threads disabled: requests run on the container platform thread pool");
+            return;
+        }
+        checkConnectionPool();
+        if (monitorEnabled) {
+            startPinningMonitor();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    public long pinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void checkConnectionPool() {
+        Integer poolSize = RequestConcurrencyLimitFilter.maximumPoolSize(dataSource);
+        Long connectionTimeout = null;
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                connectionTimeout = dataSource.unwrap(HikariDataSource.class).getConnectionTimeout();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not inspect the connection pool: {}", e.getMessage());
+        }
+        if (maxRequests <= 0) {
+            log.warn("Virtual threads enabled without request limit (http.concurrency.max-requests): concurrent requests "
+                    + "are only bounded by the connection pool (size={}, connection timeout={} ms) and will fail "
+                    + "once they wait longer than the connection timeout", poolSize, connectionTimeout);
+            return;
+        }
+        // Limite fixée à la main bien au-delà du pool : les requêtes en trop attendent une connexion, pas un permis
+        if (poolSize != null && maxRequests > poolSize * Math.max(requestsPerConnection, 1)) {
+            log.warn("Request limit {} is far above the connection pool ({} connections, {} requests per connection): "
+                    + "requests beyond the pool wait up to the connection timeout ({} ms) and then fail; lower "
+                    + "http.concurrency.max-requests or unset it to derive it from the pool",
+                    maxRequests, poolSize, requestsPerConnection, connectionTimeout);
+            return;
+        }
+        log.info("Virtual threads enabled: at most {} concurrent requests for a pool of {} connections (connection timeout={} ms)",
+                maxRequests, poolSize, connectionTimeout);
+    }
+
+    private void startPinningMonitor() {
+        if (Runtime.version().feature() >= 24) {
+            // JEP 491 : synchronized ne bloque plus le thread porteur, seuls les appels natifs restent concernés
+            log.info("Java {}: synchronized blocks no longer pin carrier threads", Runtime.version().feature());
+        }
+        try {
+            recording = new RecordingStream();
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            recording.startAsync();
+            log.info("Virtual thread pinning monitor started (threshold={} ms)", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR absent ou désactivé sur cette JVM : le diagnostic est facultatif
+            log.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        String stack = describe(event.getStackTrace());
+        if (knownSites.size() < MAX_KNOWN_SITES && knownSites.add(stack)) {
+            log.warn("Virtual thread pinned its carrier for {} ms at:{}", event.getDuration().toMillis(), stack);
+        } else {
+            log.debug("Virtual thread pinned its carrier for {} ms", event.getDuration().toMillis());
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " <no stack trace>";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < frames.size() && i < MAX_REPORTED_FRAMES; i++) {
+            RecordedFrame frame = frames.get(i);
+            text.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return text.toString();
+    }
+}
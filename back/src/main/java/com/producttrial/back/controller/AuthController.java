@@ -3,14 +3,17 @@ package com.producttrial.back.controller;
 import com.producttrial.back.dto.AuthRequestDTO;
 import com.producttrial.back.dto.AuthResponseDTO;
 import com.producttrial.back.entity.User;
+import com.producttrial.back.security.LoginThrottle;
+import com.producttrial.back.service.IAuthorizationService;
 import com.producttrial.back.service.IJwtService;
+import com.producttrial.back.service.IPasswordHashingService;
 import com.producttrial.back.service.IUserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -25,22 +28,37 @@ public class AuthController {
 
     private final IUserService userService;
     private final IJwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final IPasswordHashingService passwordHashingService;
+    private final IAuthorizationService authzService;
+    private final LoginThrottle loginThrottle;
 
 
     @PostMapping
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthRequestDTO request) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthRequestDTO request, HttpServletRequest httpRequest) {
         log.info("POST /token - login attempt for email={}", request.getEmail());
+        // IP du client et non du load balancer : X-Forwarded-For est appliqué par Tomcat pour les proxies de confiance
+        // (server.forward-headers-strategy=native)
+        String clientIp = httpRequest.getRemoteAddr();
+        // Avant toute requête SQL et tout calcul BCrypt : une tentative rejetée ne coûte presque rien
+        loginThrottle.checkAllowed(request.getEmail(), clientIp);
 
         User user = userService.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+                .orElseThrow(() -> {
+                    loginThrottle.recordFailure(request.getEmail(), clientIp);
+                    return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+                });
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             log.info("POST /token - authentication failed for email={}", request.getEmail());
+            loginThrottle.recordFailure(request.getEmail(), clientIp);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
+        loginThrottle.recordSuccess(request.getEmail());
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            userService.rehashPassword(user, request.getPassword());
+        }
 
-        String token = jwtService.generateToken(user.getId());
+        String token = jwtService.generateToken(user.getId(), authzService.rolesOf(user));
 
         return ResponseEntity.ok(new AuthResponseDTO(token));
     }
@@ -1,6 +1,11 @@
 package com.producttrial.back.controller;
 
+import com.producttrial.back.dto.BatchDeleteRequestDTO;
+import com.producttrial.back.dto.BatchItemResultDTO;
+import com.producttrial.back.dto.BatchRequestDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartSummaryDTO;
 import com.producttrial.back.entity.CartItem;
 import com.producttrial.back.mapper.CartItemMapper;
 import com.producttrial.back.service.IAuthorizationService;
@@ -11,12 +16,15 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/cart")
 @Validated
@@ -36,6 +44,25 @@ public class CartItemController {
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be less than 200");
     }
 
+    @GetMapping("/scroll")
+    public CursorPageDTO<CartItemDTO> scrollCart(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int size,
+                                                 @RequestParam(defaultValue = "id") String sort,
+                                                 @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        log.info("GET /cart/scroll size={} sort={} direction={} cursor={}", size, sort, direction, cursor != null);
+        if (size > 0 && size < 200) {
+            return cartItemService.scrollCart(cursor, sort, direction, size, authzService.getCurrentUserId());
+        }
+        log.warn("Bad request: page size must be between 1 and 199 (requested={})", size);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and 199");
+    }
+
+    @GetMapping("/summary")
+    public CartSummaryDTO getCartSummary() {
+        log.info("GET /cart/summary");
+        return cartItemService.getCartSummary(authzService.getCurrentUserId());
+    }
+
     @GetMapping("/{id}")
     public CartItemDTO getCartItem(@PathVariable @Positive Long id) {
         log.info("GET /cart/{}", id);
@@ -53,6 +80,18 @@ public class CartItemController {
         return CartItemMapper.toDto(saved);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResultDTO> createCartItems(@RequestBody @Valid BatchRequestDTO<CartItemDTO> request) {
+        log.info("POST /cart/batch - {} items", request.getItems().size());
+        return cartItemService.saveBatch(request.getItems(), authzService.getCurrentUserId());
+    }
+
+    @DeleteMapping("/batch")
+    public List<BatchItemResultDTO> deleteCartItems(@RequestBody @Valid BatchDeleteRequestDTO request) {
+        log.info("DELETE /cart/batch - {} ids", request.getIds().size());
+        return cartItemService.deleteBatch(request.getIds(), authzService.getCurrentUserId());
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteCartItem(@PathVariable @Positive Long id) {
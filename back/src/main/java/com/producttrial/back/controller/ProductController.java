@@ -1,22 +1,49 @@
 package com.producttrial.back.controller;
 
+import com.producttrial.back.dto.CursorPageDTO;
+import com.producttrial.back.dto.ImportReportDTO;
+import com.producttrial.back.dto.ListingPageDTO;
 import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import com.producttrial.back.dto.ProductFilterDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
 import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.CountMode;
+import com.producttrial.back.enums.ImportFormat;
+import com.producttrial.back.event.ProductEventBus;
 import com.producttrial.back.mapper.ProductMapper;
+import com.producttrial.back.search.ProductSuggestIndex;
 import com.producttrial.back.service.IAuthorizationService;
+import com.producttrial.back.service.IProductExportService;
+import com.producttrial.back.service.IProductImportService;
 import com.producttrial.back.service.IProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
 
 @RestController
 @RequestMapping("/products")
@@ -24,26 +51,115 @@ import org.springframework.web.server.ResponseStatusException;
 @Slf4j
 @AllArgsConstructor
 public class ProductController {
+    // Propriétés acceptées dans le paramètre sort du listing
+    private static final Set<String> SORTABLE = Set.of(
+            "id", "code", "name", "category", "price", "rating", "inventoryStatus", "createdAt", "updatedAt");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    // Réponses gardées par les navigateurs et le CDN, mais revalidées (ETag) avant chaque réutilisation
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
     private final IProductService productService;
     private final IAuthorizationService authzService;
+    private final IProductImportService productImportService;
+    private final IProductExportService productExportService;
+    private final ProductEventBus productEventBus;
     
     @GetMapping
-    public Page<ProductDTO> getAllProducts(@PageableDefault(size = 50, page = 0) Pageable pageable) {
-        log.info("GET /products page={} size={}", pageable.getPageNumber(), pageable.getPageSize());
-        if (pageable.getPageSize() < 200) {
-            return productService.getAllProducts(pageable);
+    public ResponseEntity<Page<ProductDTO>> getAllProducts(@PageableDefault(size = 50, page = 0) Pageable pageable,
+                                                           @Valid ProductFilterDTO filter, WebRequest request) {
+        log.info("GET /products page={} size={} filter={}", pageable.getPageNumber(), pageable.getPageSize(), filter);
+        checkListingRequest(pageable, filter);
+        // Le contenu d'une page ne dépend que de l'URL et de l'état du catalogue
+        String etag = "\"catalog-" + productService.getCatalogVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(productService.getAllProducts(filter, pageable));
+    }
+
+    @GetMapping(params = "count")
+    public ListingPageDTO<ProductDTO> getProductListing(@PageableDefault(size = 50, page = 0) Pageable pageable,
+                                                        @RequestParam CountMode count,
+                                                        @Valid ProductFilterDTO filter) {
+        log.info("GET /products page={} size={} count={} filter={}", pageable.getPageNumber(), pageable.getPageSize(), count, filter);
+        checkListingRequest(pageable, filter);
+        return productService.getProductListing(pageable, count, filter);
+    }
+
+    @GetMapping("/scroll")
+    public CursorPageDTO<ProductDTO> scrollProducts(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size,
+                                                    @RequestParam(defaultValue = "id") String sort,
+                                                    @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        log.info("GET /products/scroll size={} sort={} direction={} cursor={}", size, sort, direction, cursor != null);
+        if (size > 0 && size < 200) {
+            return productService.scrollProducts(cursor, sort, direction, size);
         }
-        log.warn("Bad request: page size must be less than 200 (requested={})", pageable.getPageSize());
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be less than 200");
+        log.warn("Bad request: page size must be between 1 and 199 (requested={})", size);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and 199");
+    }
+
+    @GetMapping("/search")
+    public List<ProductSearchHitDTO> searchProducts(@RequestParam(required = false) String q,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /products/search limit={}", limit);
+        if (q == null || q.isBlank() || q.length() > 200) {
+            log.warn("Bad request: search query must contain between 1 and 200 characters");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must contain between 1 and 200 characters");
+        }
+        if (limit > 0 && limit < 200) {
+            return productService.searchProducts(q, limit);
+        }
+        log.warn("Bad request: limit must be between 1 and 199 (requested={})", limit);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and 199");
+    }
+
+    @GetMapping("/suggest")
+    public List<ProductSuggestionDTO> suggestProducts(@RequestParam(required = false) String prefix,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /products/suggest limit={}", limit);
+        if (prefix == null || prefix.isBlank() || prefix.length() > 100) {
+            log.warn("Bad request: suggest prefix must contain between 1 and 100 characters");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Prefix must contain between 1 and 100 characters");
+        }
+        if (limit > 0 && limit <= ProductSuggestIndex.MAX_SUGGESTIONS) {
+            return productService.suggestProducts(prefix, limit);
+        }
+        log.warn("Bad request: limit must be between 1 and {} (requested={})", ProductSuggestIndex.MAX_SUGGESTIONS, limit);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + ProductSuggestIndex.MAX_SUGGESTIONS);
+    }
+
+    @GetMapping("/facets")
+    public ProductFacetsDTO getFacets(@RequestParam(defaultValue = "10") double priceBucket,
+                                      @Valid ProductFilterDTO filter) {
+        log.info("GET /products/facets priceBucket={} filter={}", priceBucket, filter);
+        checkFilter(filter);
+        // Largeur minimale d'un centime ; le nombre de tranches est en plus borné par le service
+        if (priceBucket >= 0.01 && priceBucket <= 1_000_000) {
+            return productService.getFacets(filter, priceBucket);
+        }
+        log.warn("Bad request: price bucket must be between 0.01 and 1000000 (requested={})", priceBucket);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Price bucket must be at least 0.01 and at most 1000000");
     }
 
     @GetMapping("/{id}")
-    public ProductDTO getProduct(@PathVariable @Positive Long id) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable @Positive Long id, WebRequest request) {
         log.info("GET /products/{}", id);
-        return productService.getProductById(id).orElseThrow(() -> {
-            log.warn("Product not found id={}", id);
-            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id " + id);
-        });
+        // Validateurs vérifiés avant de charger le produit : un 304 ne lit que sa date de modification
+        long updatedAt = productService.getProductVersion(id).orElseThrow(() -> productNotFound(id));
+        String etag = "\"" + id + "-" + updatedAt + "\"";
+        if (request.checkNotModified(etag, updatedAt)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        ProductDTO product = productService.getProductById(id).orElseThrow(() -> productNotFound(id));
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .lastModified(updatedAt)
+                .body(product);
     }
 
     @PostMapping
@@ -56,6 +172,38 @@ public class ProductController {
         return ProductMapper.toDto(saved);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReportDTO importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        authzService.ensureAdmin();
+
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV) ? ImportFormat.CSV : ImportFormat.JSONL;
+        log.info("POST /products/import format={}", format);
+        return productImportService.importProducts(body, format);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("GET /products/stream lastEventId={}", lastEventId);
+        return productEventBus.subscribe(lastEventId).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many product stream subscribers"));
+    }
+
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(defaultValue = "JSONL") ImportFormat format,
+                               HttpServletResponse response) throws IOException {
+        authzService.ensureAdmin();
+
+        log.info("GET /products/export format={}", format);
+        // Corps écrit au fil de la lecture du curseur : rien n'est accumulé en mémoire
+        response.setContentType(format == ImportFormat.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(format == ImportFormat.CSV ? "products.csv" : "products.jsonl")
+                .build()
+                .toString());
+        productExportService.exportProducts(format, response.getOutputStream());
+    }
+
     @PutMapping("/{id}")
     public ProductDTO updateProduct(@PathVariable @Positive Long id, @RequestBody @Valid ProductDTO productDTO) {
         authzService.ensureAdmin();
@@ -73,4 +221,30 @@ public class ProductController {
         log.info("DELETE /products/{}", id);
         productService.delete(id);
     }
+
+    private static ResponseStatusException productNotFound(Long id) {
+        log.warn("Product not found id={}", id);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id " + id);
+    }
+
+    private void checkListingRequest(Pageable pageable, ProductFilterDTO filter) {
+        if (pageable.getPageSize() >= 200) {
+            log.warn("Bad request: page size must be less than 200 (requested={})", pageable.getPageSize());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be less than 200");
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                log.warn("Bad request: unsupported sort property {}", order.getProperty());
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort property: " + order.getProperty());
+            }
+        }
+        checkFilter(filter);
+    }
+
+    private void checkFilter(ProductFilterDTO filter) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+            log.warn("Bad request: minPrice {} greater than maxPrice {}", filter.getMinPrice(), filter.getMaxPrice());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minPrice must be less than or equal to maxPrice");
+        }
+    }
 }
@@ -1,6 +1,10 @@
 package com.producttrial.back.controller;
 
 
+import com.producttrial.back.dto.BatchDeleteRequestDTO;
+import com.producttrial.back.dto.BatchItemResultDTO;
+import com.producttrial.back.dto.BatchRequestDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.dto.WishlistItemDTO;
 import com.producttrial.back.entity.WishlistItem;
 import com.producttrial.back.mapper.WishlistItemMapper;
@@ -12,12 +16,15 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/wishlist")
 @Validated
@@ -37,6 +44,19 @@ public class WishlistItemController {
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be less than 200");
     }
 
+    @GetMapping("/scroll")
+    public CursorPageDTO<WishlistItemDTO> scrollWishlist(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "50") int size,
+                                                         @RequestParam(defaultValue = "id") String sort,
+                                                         @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        log.info("GET /wishlist/scroll size={} sort={} direction={} cursor={}", size, sort, direction, cursor != null);
+        if (size > 0 && size < 200) {
+            return wishlistItemService.scrollWishlist(cursor, sort, direction, size, authzService.getCurrentUserId());
+        }
+        log.warn("Bad request: page size must be between 1 and 199 (requested={})", size);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and 199");
+    }
+
     @GetMapping("/{id}")
     public WishlistItemDTO getWishlistItem(@PathVariable @Positive Long id) {
         log.info("GET /wishlist/{}", id);
@@ -54,6 +74,18 @@ public class WishlistItemController {
         return WishlistItemMapper.toDto(saved);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResultDTO> createWishlistItems(@RequestBody @Valid BatchRequestDTO<WishlistItemDTO> request) {
+        log.info("POST /wishlist/batch - {} items", request.getItems().size());
+        return wishlistItemService.saveBatch(request.getItems(), authzService.getCurrentUserId());
+    }
+
+    @DeleteMapping("/batch")
+    public List<BatchItemResultDTO> deleteWishlistItems(@RequestBody @Valid BatchDeleteRequestDTO request) {
+        log.info("DELETE /wishlist/batch - {} ids", request.getIds().size());
+        return wishlistItemService.deleteBatch(request.getIds(), authzService.getCurrentUserId());
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteWishlistItem(@PathVariable @Positive Long id) {
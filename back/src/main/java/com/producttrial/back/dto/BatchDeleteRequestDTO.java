@@ -0,0 +1,22 @@
+package com.producttrial.back.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDeleteRequestDTO {
+    @NotEmpty(message = "Ids are required")
+    @Size(max = BatchRequestDTO.MAX_ITEMS, message = "At most " + BatchRequestDTO.MAX_ITEMS + " items per batch")
+    private List<@NotNull @Positive Long> ids;
+}
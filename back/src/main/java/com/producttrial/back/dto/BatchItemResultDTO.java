@@ -0,0 +1,22 @@
+package com.producttrial.back.dto;
+
+import com.producttrial.back.enums.BatchItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+    // Position de l'élément dans la requête
+    private int index;
+    // Id de la ligne de panier ou de wishlist, null si l'élément a échoué
+    private Long id;
+    private Long productId;
+    private Integer quantity;
+    private BatchItemStatus status;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.producttrial.back.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestDTO<T> {
+    public static final int MAX_ITEMS = 100;
+
+    @Valid
+    @NotEmpty(message = "Items are required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " items per batch")
+    private List<T> items;
+}
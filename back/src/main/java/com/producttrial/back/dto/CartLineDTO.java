@@ -0,0 +1,22 @@
+package com.producttrial.back.dto;
+
+import com.producttrial.back.enums.InventoryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineDTO {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String productImage;
+    private Double unitPrice;
+    private InventoryStatus inventoryStatus;
+    private Integer quantity;
+    private Double lineTotal;
+}
@@ -0,0 +1,19 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryDTO {
+    private List<CartLineDTO> lines;
+    // Somme des quantités de toutes les lignes
+    private long itemCount;
+    private double subtotal;
+}
@@ -0,0 +1,20 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    // Curseur opaque à renvoyer tel quel pour obtenir la page suivante, null s'il n'y en a pas
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    // null pour les produits sans valeur (ex: sans catégorie)
+    private String value;
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistogramBucketDTO {
+    // Borne inférieure incluse, borne supérieure exclue
+    private double from;
+    private double to;
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDTO {
+    // Enregistrement CSV (1 = premier après l'en-tête) ou ligne JSONL ; 0 pour une erreur sur tout le fichier
+    private long row;
+    private String code;
+    private String message;
+}
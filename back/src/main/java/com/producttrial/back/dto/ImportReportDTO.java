@@ -0,0 +1,23 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDTO {
+    private long rows;
+    private long created;
+    private long updated;
+    private long failed;
+    private List<ImportErrorDTO> errors;
+    // Vrai si des erreurs ont été comptées dans failed mais pas listées dans errors
+    private boolean errorsTruncated;
+    private long durationMillis;
+}
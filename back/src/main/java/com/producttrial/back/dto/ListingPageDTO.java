@@ -0,0 +1,23 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingPageDTO<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    // null quand le total n'est pas demandé (count=NONE)
+    private Long totalElements;
+    // false quand totalElements est une estimation
+    private boolean totalExact;
+}
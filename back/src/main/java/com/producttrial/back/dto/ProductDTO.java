@@ -4,6 +4,7 @@ import com.producttrial.back.enums.InventoryStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,16 +17,22 @@ import lombok.NoArgsConstructor;
 public class ProductDTO {
     private Long id;
     @NotBlank(message = "Code is required")
+    @Size(max = 255, message = "Code must be at most 255 characters")
     private String code;
     @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must be at most 255 characters")
     private String name;
+    @Size(max = 2000, message = "Description must be at most 2000 characters")
     private String description;
+    @Size(max = 255, message = "Image must be at most 255 characters")
     private String image;
+    @Size(max = 255, message = "Category must be at most 255 characters")
     private String category;
     @NotNull(message = "Price is required")
     @Positive(message = "Price must be greater than 0")
     private Double price;
     private Integer quantity;
+    @Size(max = 255, message = "Internal reference must be at most 255 characters")
     private String internalReference;
     private Long shellId;
     private InventoryStatus inventoryStatus;
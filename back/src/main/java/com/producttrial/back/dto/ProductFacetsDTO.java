@@ -0,0 +1,20 @@
+package com.producttrial.back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDTO {
+    private long totalElements;
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> inventoryStatuses;
+    private List<HistogramBucketDTO> priceHistogram;
+    private List<HistogramBucketDTO> ratingHistogram;
+}
@@ -0,0 +1,27 @@
+package com.producttrial.back.dto;
+
+import com.producttrial.back.enums.InventoryStatus;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDTO {
+    private String category;
+    private InventoryStatus inventoryStatus;
+    @PositiveOrZero(message = "Minimum price must be positive")
+    private Double minPrice;
+    @PositiveOrZero(message = "Maximum price must be positive")
+    private Double maxPrice;
+    @PositiveOrZero(message = "Minimum rating must be positive")
+    private Double minRating;
+
+    public boolean hasCriteria() {
+        return category != null || inventoryStatus != null || minPrice != null || maxPrice != null || minRating != null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.producttrial.back.dto;
+
+import com.producttrial.back.enums.InventoryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHitDTO {
+    private Long id;
+    private String code;
+    private String name;
+    private String image;
+    private String category;
+    private Double price;
+    private InventoryStatus inventoryStatus;
+    private Double rating;
+    private double score;
+}
@@ -0,0 +1,14 @@
+package com.producttrial.back.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+// Immuable : une même instance est partagée entre toutes les réponses de l'autocomplétion
+@Value
+@Builder
+public class ProductSuggestionDTO {
+    Long id;
+    String code;
+    String name;
+    Double rating;
+}
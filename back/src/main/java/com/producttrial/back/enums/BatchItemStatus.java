@@ -0,0 +1,14 @@
+package com.producttrial.back.enums;
+
+/**
+ * Outcome of one item of a batch request on the cart or the wishlist.
+ */
+public enum BatchItemStatus {
+    CREATED,
+    // quantité ajoutée à une ligne de panier existante
+    UPDATED,
+    // produit déjà présent dans la wishlist, rien n'est modifié
+    ALREADY_EXISTS,
+    DELETED,
+    NOT_FOUND
+}
@@ -0,0 +1,13 @@
+package com.producttrial.back.enums;
+
+/**
+ * How the total number of elements of a listing is computed.
+ */
+public enum CountMode {
+    // count(*) exact à chaque page
+    EXACT,
+    // estimation rafraîchie périodiquement, pas de count(*) par requête
+    ESTIMATE,
+    // pas de total du tout
+    NONE
+}
@@ -0,0 +1,11 @@
+package com.producttrial.back.enums;
+
+/**
+ * Format of a bulk product import or export body.
+ */
+public enum ImportFormat {
+    // text/csv, première ligne = noms de colonnes
+    CSV,
+    // application/x-ndjson, un objet JSON par ligne
+    JSONL
+}
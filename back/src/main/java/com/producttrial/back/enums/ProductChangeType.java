@@ -0,0 +1,8 @@
+package com.producttrial.back.enums;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    ALL_DELETED
+}
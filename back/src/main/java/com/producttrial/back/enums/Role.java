@@ -0,0 +1,13 @@
+package com.producttrial.back.enums;
+
+public enum Role {
+    USER,
+    ADMIN;
+
+    /**
+     * Name of the Spring Security authority granted for this role.
+     */
+    public String authority() {
+        return "ROLE_" + name();
+    }
+}
@@ -0,0 +1,31 @@
+package com.producttrial.back.event;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.ProductChangeType;
+
+/**
+ * Published by {@link com.producttrial.back.service.serviceimpl.ProductServiceImpl} after a product
+ * has been created, updated or deleted, once the local cache has already been evicted.
+ *
+ * @param type      the kind of change
+ * @param productId the id of the changed product, null for {@link ProductChangeType#ALL_DELETED}
+ * @param product   the state of the product after the change, null for deletions
+ */
+public record ProductChangedEvent(ProductChangeType type, Long productId, ProductDTO product) {
+
+    public static ProductChangedEvent created(ProductDTO product) {
+        return new ProductChangedEvent(ProductChangeType.CREATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent updated(ProductDTO product) {
+        return new ProductChangedEvent(ProductChangeType.UPDATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(ProductChangeType.DELETED, productId, null);
+    }
+
+    public static ProductChangedEvent allDeleted() {
+        return new ProductChangedEvent(ProductChangeType.ALL_DELETED, null, null);
+    }
+}
@@ -0,0 +1,320 @@
+package com.producttrial.back.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fan-out of committed product changes to the Server-Sent Events subscribers of {@code GET /products/stream}.
+ * <p>
+ * Every change gets an id {@code <epoch>-<sequence>} and is kept in a ring of the last {@code product.stream.replay-size}
+ * changes, so a client reconnecting with {@code Last-Event-ID} receives what it missed. When that is not possible
+ * (id from a previous run, or older than the ring), the client is sent a {@value #RESET_EVENT} event and must reload
+ * the catalog.
+ * <p>
+ * Each subscriber has a queue bounded by {@code product.stream.buffer-size}. A slow client that lets it fill up loses
+ * the oldest changes and is sent a {@value #RESET_EVENT} event. Queues are drained by virtual threads started on demand,
+ * so an idle subscriber holds no thread; only its emitter and an empty queue.
+ * <p>
+ * During a product import, the per-row changes are not fanned out: every subscriber is sent a single
+ * {@value #RESET_EVENT} event once the import is finished.
+ */
+@Component
+@Slf4j
+public class ProductEventBus {
+    public static final String RESET_EVENT = "reset";
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Executor deliveryExecutor;
+    private final ScheduledExecutorService heartbeatScheduler;
+    // Préfixe des ids : un id reçu d'une exécution précédente n'est jamais confondu avec un id courant
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Derniers événements publiés ; ring, sequence et l'ajout aux files des abonnés sont protégés par ring
+    private final Envelope[] ring;
+    private long sequence;
+    // Imports en cours, protégés par ring : leurs changements ne sont pas diffusés un par un
+    private int runningImports;
+    private boolean changesSkipped;
+    // Un client dont le dernier id est inférieur ou égal a manqué des changements non diffusés
+    private long resetSequence;
+
+    private record Envelope(long sequence, String id, ProductChangedEvent event) {
+    }
+
+    @Autowired
+    public ProductEventBus(@Value("${product.stream.timeout:30m}") Duration timeout,
+                           @Value("${product.stream.heartbeat:25s}") Duration heartbeat,
+                           @Value("${product.stream.buffer-size:256}") int bufferSize,
+                           @Value("${product.stream.replay-size:1024}") int replaySize,
+                           @Value("${product.stream.max-subscribers:10000}") int maxSubscribers) {
+        this(timeout, bufferSize, replaySize, maxSubscribers, Executors.newVirtualThreadPerTaskExecutor(),
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "product-stream-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+        heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    ProductEventBus(Duration timeout, int bufferSize, int replaySize, int maxSubscribers,
+                    Executor deliveryExecutor, ScheduledExecutorService heartbeatScheduler) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.deliveryExecutor = deliveryExecutor;
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.ring = new Envelope[replaySize];
+    }
+
+    /**
+     * Opens a subscription to the product changes.
+     *
+     * @param lastEventId the id of the last change received by the client before a reconnection, or null
+     * @return the emitter to return from the controller, or an empty Optional when the subscriber limit is reached
+     */
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Product stream subscription refused: {} subscribers", subscribers.size());
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(emitter, lastEventId);
+        return Optional.of(emitter);
+    }
+
+    void register(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        try {
+            // Envoyé avant l'enregistrement : aucun envoi concurrent possible. Fixe aussi le délai de reconnexion
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        } catch (IOException e) {
+            return;
+        }
+        synchronized (ring) {
+            replay(subscriber, lastEventId);
+            subscribers.add(subscriber);
+        }
+        subscriber.scheduleDrain();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (ring) {
+            if (runningImports > 0) {
+                changesSkipped = true;
+                return;
+            }
+            long next = ++sequence;
+            Envelope envelope = new Envelope(next, epoch + "-" + next, event);
+            ring[(int) (next % ring.length)] = envelope;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(envelope);
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.scheduleDrain();
+        }
+    }
+
+    @EventListener
+    public void onImportStarted(ProductImportStartedEvent event) {
+        synchronized (ring) {
+            runningImports++;
+        }
+    }
+
+    // Un seul reset à la fin de l'import plutôt qu'un envoi par ligne à chaque abonné
+    @EventListener
+    public void onImportFinished(ProductImportFinishedEvent event) {
+        synchronized (ring) {
+            if (runningImports == 0 || --runningImports > 0 || !changesSkipped) {
+                return;
+            }
+            changesSkipped = false;
+            resetSequence = sequence;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.markReset();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.scheduleDrain();
+        }
+    }
+
+    /**
+     * Sends a comment line to every idle subscriber, so that proxies keep the connection open
+     * and disconnected clients are detected.
+     */
+    void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        if (deliveryExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // Appelé sous le verrou ring
+    private void replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long last = parseSequence(lastEventId);
+        long oldest = Math.max(1, sequence - ring.length + 1);
+        if (last < 0 || last > sequence || last < oldest - 1 || last <= resetSequence || changesSkipped) {
+            // Événements manqués introuvables : le client doit recharger le catalogue
+            subscriber.markReset();
+            return;
+        }
+        for (long s = last + 1; s <= sequence; s++) {
+            subscriber.offer(ring[(int) (s % ring.length)]);
+        }
+    }
+
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Envelope> queue = new ArrayDeque<>();
+        // Protégés par queue
+        private boolean resetPending;
+        private boolean heartbeatPending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Envelope envelope) {
+            synchronized (queue) {
+                if (queue.size() >= bufferSize) {
+                    // Politique drop-oldest : le client sera prévenu par un événement reset
+                    queue.pollFirst();
+                    resetPending = true;
+                }
+                queue.addLast(envelope);
+            }
+        }
+
+        private void markReset() {
+            synchronized (queue) {
+                resetPending = true;
+            }
+        }
+
+        private void requestHeartbeat() {
+            synchronized (queue) {
+                heartbeatPending = true;
+            }
+            scheduleDrain();
+        }
+
+        private boolean hasPending() {
+            synchronized (queue) {
+                return resetPending || heartbeatPending || !queue.isEmpty();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (hasPending() && draining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        // Un seul drain à la fois par abonné : les envois sur l'emitter restent ordonnés
+        private void drain() {
+            try {
+                do {
+                    sendPending();
+                    draining.set(false);
+                } while (hasPending() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Client déconnecté ou emitter déjà terminé
+                log.debug("Product stream subscriber dropped: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void sendPending() throws IOException {
+            while (true) {
+                boolean reset;
+                boolean heartbeat;
+                Envelope next;
+                synchronized (queue) {
+                    reset = resetPending;
+                    resetPending = false;
+                    next = queue.pollFirst();
+                    heartbeat = heartbeatPending && next == null && !reset;
+                    heartbeatPending = false;
+                }
+                if (reset) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data("{}", MediaType.APPLICATION_JSON));
+                }
+                if (next != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(next.id())
+                            .name(next.event().type().name().toLowerCase(Locale.ROOT))
+                            .data(next.event(), MediaType.APPLICATION_JSON));
+                } else {
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.producttrial.back.event;
+
+/**
+ * Published by {@link com.producttrial.back.service.serviceimpl.ProductImportServiceImpl} once an import is over,
+ * whether it succeeded or not. Always follows a {@link ProductImportStartedEvent}.
+ */
+public record ProductImportFinishedEvent() {
+}
@@ -0,0 +1,9 @@
+package com.producttrial.back.event;
+
+/**
+ * Published by {@link com.producttrial.back.service.serviceimpl.ProductImportServiceImpl} before the first row
+ * of an import is written. Until the matching {@link ProductImportFinishedEvent}, listeners may defer the work
+ * they would otherwise do for each {@link ProductChangedEvent} of the import.
+ */
+public record ProductImportStartedEvent() {
+}
@@ -0,0 +1,21 @@
+package com.producttrial.back.event;
+
+import java.util.Set;
+
+/**
+ * Published by {@link com.producttrial.back.cache.ProductCacheSync} when another node reports product changes,
+ * so that the in-memory indexes reload the affected products from the database.
+ *
+ * @param productIds  the ids of the changed products, empty when {@code allProducts} is true
+ * @param allProducts true when any product may have changed and everything must be reloaded
+ */
+public record RemoteProductsChangedEvent(Set<Long> productIds, boolean allProducts) {
+
+    public static RemoteProductsChangedEvent of(Set<Long> productIds) {
+        return new RemoteProductsChangedEvent(Set.copyOf(productIds), false);
+    }
+
+    public static RemoteProductsChangedEvent all() {
+        return new RemoteProductsChangedEvent(Set.of(), true);
+    }
+}
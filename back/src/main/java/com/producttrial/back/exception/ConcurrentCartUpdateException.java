@@ -0,0 +1,9 @@
+package com.producttrial.back.exception;
+
+public class ConcurrentCartUpdateException extends RuntimeException {
+    public ConcurrentCartUpdateException(Long productId) {
+        super(productId != null
+                ? "Product with id " + productId + " was added to the cart by a concurrent request, retry the request"
+                : "Products were added to the cart by a concurrent request, retry the request");
+    }
+}
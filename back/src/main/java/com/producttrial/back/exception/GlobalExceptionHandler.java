@@ -5,13 +5,17 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -55,6 +59,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    // 400 pour un curseur de pagination invalide ou une clef de tri non supportée
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest req) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+        ErrorResponse body = new ErrorResponse(Instant.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                req.getRequestURI());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    // 400 pour un histogramme de facettes qui aurait trop de tranches
+    @ExceptionHandler(InvalidFacetRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFacetRequest(InvalidFacetRequestException ex, HttpServletRequest req) {
+        log.warn("Invalid facet request: {}", ex.getMessage());
+        ErrorResponse body = new ErrorResponse(Instant.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                req.getRequestURI());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    // 400 pour un paramètre de requête qui ne peut pas être converti (ex: enum inconnu)
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(MethodArgumentTypeMismatchException ex, HttpServletRequest req) {
+        log.warn("Type mismatch for parameter {}: {}", ex.getName(), ex.getValue());
+        ErrorResponse body = new ErrorResponse(Instant.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                "Invalid value for parameter " + ex.getName(),
+                req.getRequestURI());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
     // 403 pour AccessDeniedException
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex, HttpServletRequest req) {
@@ -74,6 +114,11 @@ public class GlobalExceptionHandler {
         return buildNotFoundResponse(ex.getMessage(), req.getRequestURI());
     }
 
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex, HttpServletRequest req) {
+        return buildNotFoundResponse(ex.getMessage(), req.getRequestURI());
+    }
+
     @ExceptionHandler(CartItemNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCartItemNotFound(CartItemNotFoundException ex, HttpServletRequest req) {
         return buildNotFoundResponse(ex.getMessage(), req.getRequestURI());
@@ -96,6 +141,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(404).body(body);
     }
 
+    // 409 : le client peut renvoyer la requête telle quelle
+    @ExceptionHandler(ConcurrentCartUpdateException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrentCartUpdate(ConcurrentCartUpdateException ex, HttpServletRequest req) {
+        log.warn("Concurrent cart update: {}", ex.getMessage());
+        return buildConflictResponse(ex.getMessage(), req.getRequestURI());
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex, HttpServletRequest req) {
         log.error("Data integrity violation: {}", ex.getMessage(), ex);
@@ -136,6 +188,48 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
+    // 503 quand aucune connexion du pool ne s'est libérée avant le connection timeout de Hikari
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ErrorResponse> handleConnectionUnavailable(Exception ex, HttpServletRequest req) {
+        log.error("No database connection available for {}: {}", req.getRequestURI(), ex.getMessage());
+        return buildServiceUnavailableResponse("Service temporarily overloaded, retry later", req.getRequestURI());
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex, HttpServletRequest req) {
+        log.warn("Password hashing unavailable for {}: {}", req.getRequestURI(), ex.getMessage());
+        return buildServiceUnavailableResponse("Authentication temporarily overloaded, retry later", req.getRequestURI());
+    }
+
+    // 429 avec le délai avant la prochaine tentative autorisée
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest req) {
+        ErrorResponse body = new ErrorResponse(
+                Instant.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                ex.getMessage(),
+                req.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // 503 avec Retry-After : le client peut réessayer sans attendre longtemps
+    private ResponseEntity<ErrorResponse> buildServiceUnavailableResponse(String message, String path) {
+        ErrorResponse body = new ErrorResponse(
+                Instant.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                message,
+                path
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
     // handler pour ResponseStatusException
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException ex, HttpServletRequest req) {
@@ -0,0 +1,7 @@
+package com.producttrial.back.exception;
+
+public class InvalidFacetRequestException extends RuntimeException {
+    public InvalidFacetRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.producttrial.back.mapper;
+
+import com.producttrial.back.dto.BatchItemResultDTO;
+import com.producttrial.back.enums.BatchItemStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+public class BatchResultMapper {
+    private BatchResultMapper() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Builds the result of a batch deletion, in request order.
+     *
+     * @param ids the requested ids
+     * @param deleted the ids that were actually deleted
+     * @param notFoundMessage the message reported for an id that was not deleted
+     * @return one result per requested id
+     */
+    public static List<BatchItemResultDTO> toDeletionResults(List<Long> ids, Set<Long> deleted,
+                                                             LongFunction<String> notFoundMessage) {
+        List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            BatchItemResultDTO.BatchItemResultDTOBuilder result = BatchItemResultDTO.builder().index(i).id(id);
+            if (deleted.contains(id)) {
+                result.status(BatchItemStatus.DELETED);
+            } else {
+                result.status(BatchItemStatus.NOT_FOUND).message(notFoundMessage.apply(id));
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+}
@@ -1,8 +1,14 @@
 package com.producttrial.back.mapper;
 
 import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartLineDTO;
+import com.producttrial.back.dto.CartSummaryDTO;
 import com.producttrial.back.entity.CartItem;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
 public class CartItemMapper {
     private CartItemMapper() {
         throw new UnsupportedOperationException("Utility class");
@@ -15,4 +21,21 @@ public class CartItemMapper {
                 .quantity(cartItem.getQuantity())
                 .build();
     }
+
+    public static CartSummaryDTO toSummary(List<CartLineDTO> lines) {
+        long itemCount = 0;
+        // Somme en BigDecimal pour ne pas accumuler les erreurs d'arrondi des double
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartLineDTO line : lines) {
+            itemCount += line.getQuantity();
+            if (line.getLineTotal() != null) {
+                subtotal = subtotal.add(BigDecimal.valueOf(line.getLineTotal()));
+            }
+        }
+        return CartSummaryDTO.builder()
+                .lines(lines)
+                .itemCount(itemCount)
+                .subtotal(subtotal.setScale(2, RoundingMode.HALF_UP).doubleValue())
+                .build();
+    }
 }
@@ -0,0 +1,125 @@
+package com.producttrial.back.mapper;
+
+import com.producttrial.back.dto.CursorPageDTO;
+import com.producttrial.back.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts keyset scroll positions to opaque cursors and back.
+ * A cursor holds the sort direction, the sort property, and the values of that property and of the id
+ * for the last element of the previous page, so the next page is fetched with a seek predicate instead of an OFFSET.
+ */
+public class CursorMapper {
+    private static final String ID = "id";
+    private static final String SEPARATOR = "\u001F";
+
+    private CursorMapper() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Decoded cursor (or first page request): the sort to apply and the position to scroll from.
+     */
+    public record Cursor(Sort sort, String property, Sort.Direction direction, ScrollPosition position) {
+    }
+
+    /**
+     * Builds the scroll request from the query parameters. When a cursor is given, its sort
+     * takes precedence over the requested one so that the client cannot change the order mid-scroll.
+     *
+     * @param cursor the opaque cursor returned by the previous page, or null for the first page
+     * @param property the requested sort property for the first page
+     * @param direction the requested sort direction for the first page
+     * @param sortable the properties allowed as sort key, with their Java type
+     * @return the decoded cursor
+     */
+    public static Cursor decode(String cursor, String property, Sort.Direction direction, Map<String, Class<?>> sortable) {
+        if (cursor == null || cursor.isBlank()) {
+            checkSortable(property, sortable);
+            return new Cursor(sortOf(property, direction), property, direction, ScrollPosition.keyset());
+        }
+
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        Sort.Direction cursorDirection = Sort.Direction.fromOptionalString(parts[0])
+                .orElseThrow(() -> new InvalidCursorException("Invalid cursor"));
+        String cursorProperty = parts[1];
+        checkSortable(cursorProperty, sortable);
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!ID.equals(cursorProperty)) {
+            keys.put(cursorProperty, convert(parts[3], sortable.get(cursorProperty)));
+        }
+        keys.put(ID, convert(parts[2], Long.class));
+        return new Cursor(sortOf(cursorProperty, cursorDirection), cursorProperty, cursorDirection, ScrollPosition.forward(keys));
+    }
+
+    /**
+     * Maps a window of entities to a cursor page, computing the cursor of the next page if there is one.
+     *
+     * @param window the window returned by the repository
+     * @param mapper the entity to DTO mapping function
+     * @param cursor the cursor used to fetch this window
+     * @return the page of DTOs with its next cursor
+     */
+    public static <T, D> CursorPageDTO<D> toPage(Window<T> window, Function<T, D> mapper, Cursor cursor) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()
+                && window.positionAt(window.size() - 1) instanceof KeysetScrollPosition position) {
+            nextCursor = encode(cursor.property(), cursor.direction(), position.getKeys());
+        }
+        return CursorPageDTO.<D>builder()
+                .content(window.getContent().stream().map(mapper).toList())
+                .size(window.size())
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String encode(String property, Sort.Direction direction, Map<String, ?> keys) {
+        Object value = ID.equals(property) ? "" : keys.get(property);
+        String raw = String.join(SEPARATOR, direction.name(), property, String.valueOf(keys.get(ID)), String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Sort sortOf(String property, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, property);
+        return ID.equals(property) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    private static void checkSortable(String property, Map<String, Class<?>> sortable) {
+        if (!sortable.containsKey(property)) {
+            throw new InvalidCursorException("Unsupported sort property: " + property);
+        }
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        try {
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == Double.class) {
+                return Double.valueOf(value);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
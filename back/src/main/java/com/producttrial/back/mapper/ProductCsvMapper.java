@@ -0,0 +1,136 @@
+package com.producttrial.back.mapper;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.InventoryStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ProductCsvMapper {
+    // Colonnes reconnues, dans l'ordre utilisé à l'export
+    public static final List<String> COLUMNS = List.of("code", "name", "description", "image", "category", "price",
+            "quantity", "internalReference", "shellId", "inventoryStatus", "rating");
+    private static final List<String> REQUIRED_COLUMNS = List.of("code", "name", "price");
+
+    private ProductCsvMapper() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Resolves the position of each known column from a header record. Unknown columns are ignored.
+     *
+     * @param header the first record of the file
+     * @return the index of each known column, by column name
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    public static Map<String, Integer> columnIndexes(List<String> header) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                // BOM laissé par les exports Excel
+                name = name.substring(1);
+            }
+            if (COLUMNS.contains(name)) {
+                indexes.putIfAbsent(name, i);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!indexes.containsKey(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing required column(s): " + String.join(", ", missing));
+        }
+        return indexes;
+    }
+
+    /**
+     * Converts a CSV record into a product. Empty fields are read as null; the result is not validated.
+     *
+     * @param columns the index of each known column, as returned by {@link #columnIndexes(List)}
+     * @param record the fields of the record
+     * @return the product described by the record
+     * @throws IllegalArgumentException if a numeric or inventory status field cannot be parsed
+     */
+    public static ProductDTO fromRecord(Map<String, Integer> columns, List<String> record) {
+        return ProductDTO.builder()
+                .code(field(columns, record, "code"))
+                .name(field(columns, record, "name"))
+                .description(field(columns, record, "description"))
+                .image(field(columns, record, "image"))
+                .category(field(columns, record, "category"))
+                .price(parse(columns, record, "price", Double::valueOf))
+                .quantity(parse(columns, record, "quantity", Integer::valueOf))
+                .internalReference(field(columns, record, "internalReference"))
+                .shellId(parse(columns, record, "shellId", Long::valueOf))
+                .inventoryStatus(parse(columns, record, "inventoryStatus", InventoryStatus::valueOf))
+                .rating(parse(columns, record, "rating", Double::valueOf))
+                .build();
+    }
+
+    /**
+     * Converts a product into a CSV line, in the order of {@link #COLUMNS}, without the line break.
+     *
+     * @param product the product to write
+     * @return the escaped CSV line
+     */
+    public static String toLine(ProductDTO product) {
+        StringBuilder line = new StringBuilder(256);
+        appendField(line, product.getCode());
+        appendField(line.append(','), product.getName());
+        appendField(line.append(','), product.getDescription());
+        appendField(line.append(','), product.getImage());
+        appendField(line.append(','), product.getCategory());
+        appendField(line.append(','), product.getPrice());
+        appendField(line.append(','), product.getQuantity());
+        appendField(line.append(','), product.getInternalReference());
+        appendField(line.append(','), product.getShellId());
+        appendField(line.append(','), product.getInventoryStatus());
+        appendField(line.append(','), product.getRating());
+        return line.toString();
+    }
+
+    public static String headerLine() {
+        return String.join(",", COLUMNS);
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T parse(Map<String, Integer> columns, List<String> record, String column, Function<String, T> parser) {
+        String value = field(columns, record, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + column + ": " + value, e);
+        }
+    }
+
+    // Guillemets uniquement si nécessaire : virgule, guillemet ou retour à la ligne dans la valeur
+    private static void appendField(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
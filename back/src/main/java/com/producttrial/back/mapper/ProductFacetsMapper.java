@@ -0,0 +1,71 @@
+package com.producttrial.back.mapper;
+
+import com.producttrial.back.dto.FacetCountDTO;
+import com.producttrial.back.dto.HistogramBucketDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import com.producttrial.back.enums.InventoryStatus;
+import com.producttrial.back.repository.ProductRepositoryCustom.FacetCounts;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductFacetsMapper {
+    private static final Comparator<FacetCountDTO> BY_COUNT_DESC = Comparator
+            .comparingLong(FacetCountDTO::getCount).reversed()
+            .thenComparing(FacetCountDTO::getValue, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private ProductFacetsMapper() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Builds the facets of each dimension from their grouped counts.
+     *
+     * @param counts the counts per category, inventory status, price bucket and rating bucket
+     * @param priceBucketWidth the width of the price buckets used by the query
+     * @param ratingBucketWidth the width of the rating buckets used by the query
+     * @return the facets, values sorted by decreasing count and buckets by increasing bound
+     */
+    public static ProductFacetsDTO toDto(FacetCounts counts, double priceBucketWidth, double ratingBucketWidth) {
+        // Chaque produit a exactement une catégorie (éventuellement nulle) : leur somme est le total
+        long total = 0;
+        Map<String, Long> categories = new HashMap<>();
+        for (Object[] row : counts.categories()) {
+            long count = ((Number) row[1]).longValue();
+            total += count;
+            categories.merge((String) row[0], count, Long::sum);
+        }
+        Map<String, Long> statuses = new HashMap<>();
+        for (Object[] row : counts.inventoryStatuses()) {
+            statuses.merge(row[0] != null ? ((InventoryStatus) row[0]).name() : null, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return ProductFacetsDTO.builder()
+                .totalElements(total)
+                .categories(toCounts(categories))
+                .inventoryStatuses(toCounts(statuses))
+                .priceHistogram(toBuckets(counts.priceBuckets(), priceBucketWidth))
+                .ratingHistogram(toBuckets(counts.ratingBuckets(), ratingBucketWidth))
+                .build();
+    }
+
+    private static List<FacetCountDTO> toCounts(Map<String, Long> counts) {
+        List<FacetCountDTO> facets = new ArrayList<>(counts.size());
+        counts.forEach((value, count) -> facets.add(new FacetCountDTO(value, count)));
+        facets.sort(BY_COUNT_DESC);
+        return facets;
+    }
+
+    private static List<HistogramBucketDTO> toBuckets(List<Object[]> rows, double width) {
+        TreeMap<Long, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            counts.merge(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), Long::sum);
+        }
+        List<HistogramBucketDTO> buckets = new ArrayList<>(counts.size());
+        counts.forEach((bucket, count) -> buckets.add(new HistogramBucketDTO(bucket * width, (bucket + 1) * width, count)));
+        return buckets;
+    }
+}
@@ -1,6 +1,8 @@
 package com.producttrial.back.mapper;
 
 import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
 import com.producttrial.back.entity.Product;
 
 public class ProductMapper {
@@ -41,4 +43,26 @@ public class ProductMapper {
                 .rating(product.getRating())
                 .build();
     }
+
+    public static ProductSearchHitDTO toSearchHit(ProductDTO dto) {
+        return ProductSearchHitDTO.builder()
+                .id(dto.getId())
+                .code(dto.getCode())
+                .name(dto.getName())
+                .image(dto.getImage())
+                .category(dto.getCategory())
+                .price(dto.getPrice())
+                .inventoryStatus(dto.getInventoryStatus())
+                .rating(dto.getRating())
+                .build();
+    }
+
+    public static ProductSuggestionDTO toSuggestion(ProductDTO dto) {
+        return ProductSuggestionDTO.builder()
+                .id(dto.getId())
+                .code(dto.getCode())
+                .name(dto.getName())
+                .rating(dto.getRating())
+                .build();
+    }
 }
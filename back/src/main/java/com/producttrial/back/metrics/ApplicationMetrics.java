@@ -0,0 +1,82 @@
+package com.producttrial.back.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.producttrial.back.cache.ProductCache;
+import com.producttrial.back.config.RequestConcurrencyLimitFilter;
+import com.producttrial.back.config.VirtualThreadDiagnostics;
+import com.producttrial.back.event.ProductEventBus;
+import com.producttrial.back.service.serviceimpl.JwtServiceImpl;
+import com.producttrial.back.service.serviceimpl.PasswordHashingServiceImpl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Publishes the counters the application already keeps (cache statistics, password hashing pool, SSE subscribers,
+ * requests in flight, virtual thread pinning) as meters. They are read at scrape time, so nothing is added on the
+ * request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetrics implements MeterBinder {
+    private final ProductCache productCache;
+    private final JwtServiceImpl jwtService;
+    private final PasswordHashingServiceImpl passwordHashingService;
+    private final ProductEventBus productEventBus;
+    private final RequestConcurrencyLimitFilter requestConcurrencyLimitFilter;
+    private final VirtualThreadDiagnostics virtualThreadDiagnostics;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "products", productCache, ProductCache::productStats);
+        bindCache(registry, "product-pages", productCache, ProductCache::pageStats);
+        bindCache(registry, "product-facets", productCache, ProductCache::facetStats);
+        bindCache(registry, "product-versions", productCache, ProductCache::versionStats);
+        bindCache(registry, "jwt-tokens", jwtService, JwtServiceImpl::tokenCacheStats);
+
+        Gauge.builder("security.password.hashing.queued", passwordHashingService, PasswordHashingServiceImpl::queuedTasks)
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("security.password.hashing.active", passwordHashingService, PasswordHashingServiceImpl::activeTasks)
+                .description("Password hashing tasks running")
+                .register(registry);
+        FunctionCounter.builder("security.password.hashing.completed", passwordHashingService, PasswordHashingServiceImpl::completedTasks)
+                .register(registry);
+        FunctionCounter.builder("security.password.hashing.rejected", passwordHashingService, PasswordHashingServiceImpl::rejectedTasks)
+                .description("Password hashing tasks refused because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("security.password.hashing.timed.out", passwordHashingService, PasswordHashingServiceImpl::timedOutTasks)
+                .register(registry);
+
+        Gauge.builder("product.stream.subscribers", productEventBus, ProductEventBus::subscriberCount)
+                .description("Open Server-Sent Events subscriptions")
+                .register(registry);
+        Gauge.builder("http.server.requests.in.flight", requestConcurrencyLimitFilter, RequestConcurrencyLimitFilter::inFlightRequests)
+                .description("Requests holding a concurrency permit")
+                .register(registry);
+        FunctionCounter.builder("jvm.threads.virtual.pinned", virtualThreadDiagnostics, VirtualThreadDiagnostics::pinnedEvents)
+                .description("Virtual threads that pinned their carrier longer than threads.pinning.threshold")
+                .register(registry);
+    }
+
+    // Mêmes noms que les métriques Caffeine de Micrometer. Le propriétaire du cache est gardé en référence faible
+    // par le registre : c'est lui qu'on lui passe, pas une référence de méthode qui serait aussitôt collectée
+    private static <T> void bindCache(MeterRegistry registry, String name, T owner, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).hitCount())
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).missCount())
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> stats.apply(o).evictionCount())
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.producttrial.back.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Per-request metrics that complete the {@code http.server.requests} timer recorded by Spring: the number of SQL
+ * statements each endpoint runs ({@value #SQL_STATEMENTS}), and a counter of error responses ({@value #ERRORS}) by
+ * endpoint and status. Both are tagged with the route template, not the raw URI, to keep a bounded number of series.
+ * Runs before the concurrency limit, so the 503 it returns are counted too.
+ */
+@Component
+// Avant RequestConcurrencyLimitFilter (-101) et la chaîne Spring Security (-100)
+@Order(-102)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    static final String SQL_STATEMENTS = "http.server.requests.sql.statements";
+    static final String ERRORS = "http.server.errors";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.begin();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            // Une exception remontée jusqu'ici sera servie en 500 par le conteneur
+            record(request, status, SqlStatementCounter.end());
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, int statements) {
+        String method = request.getMethod();
+        String uri = uriTemplate(request);
+        DistributionSummary.builder(SQL_STATEMENTS)
+                .description("SQL statements prepared while handling a request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        if (status >= 400) {
+            Counter.builder(ERRORS)
+                    .description("Requests answered with a 4xx or 5xx status")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("status", Integer.toString(status))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    // Route déclarée (/products/{id}) : les URI brutes multiplieraient les séries
+    private static String uriTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
@@ -0,0 +1,36 @@
+package com.producttrial.back.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements prepared by Hibernate on the current thread, between {@link #begin()} and {@link #end()}.
+ * Registered with {@code hibernate.session_factory.statement_inspector}, so Hibernate creates it with its no-arg
+ * constructor and the count lives in a thread-local rather than in the instance. Statements run outside Hibernate
+ * (plain JDBC work) are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    // Compteur de la requête HTTP en cours ; absent hors d'une requête (tâches de fond, démarrage)
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void begin() {
+        CURRENT.set(new int[1]);
+    }
+
+    /**
+     * @return the number of statements prepared since {@link #begin()}, or 0 if counting was not started
+     */
+    static int end() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
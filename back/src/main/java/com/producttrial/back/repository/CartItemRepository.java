@@ -1,19 +1,50 @@
 package com.producttrial.back.repository;
 
+import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartLineDTO;
 import com.producttrial.back.entity.CartItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
     List<CartItem> findByUserId(Long userId);
-    Page<CartItem> findByUserId(Pageable pageable, Long userId);
-    Optional<CartItem> findByIdAndUserId(Long id, Long userId);
+    Window<CartItem> findByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
     boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Query("select c.id from CartItem c where c.user.id = :userId and c.id in :ids")
+    List<Long> findIdsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from CartItem c where c.user.id = :userId and c.id in :ids")
+    int deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query(value = "select new com.producttrial.back.dto.CartItemDTO(c.id, c.product.id, c.quantity) from CartItem c where c.user.id = :userId",
+            countQuery = "select count(c) from CartItem c where c.user.id = :userId")
+    Page<CartItemDTO> findDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select new com.producttrial.back.dto.CartItemDTO(c.id, c.product.id, c.quantity) from CartItem c where c.id = :id and c.user.id = :userId")
+    Optional<CartItemDTO> findDtoByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("""
+            select new com.producttrial.back.dto.CartLineDTO(c.id, p.id, p.name, p.image, p.price, p.inventoryStatus,
+                c.quantity, p.price * c.quantity)
+            from CartItem c join c.product p
+            where c.user.id = :userId
+            order by c.id""")
+    List<CartLineDTO> findLinesByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,45 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.entity.CartItem;
+
+import java.util.Map;
+
+public interface CartItemRepositoryCustom {
+    /**
+     * Cart line written by {@link #addQuantities(Long, Map, long)}.
+     *
+     * @param id the unique identifier of the cart line
+     * @param quantity the quantity of the line after the addition
+     * @param created whether the line was inserted by this addition rather than incremented
+     */
+    record AddedLine(Long id, int quantity, boolean created) {}
+
+    /**
+     * Adds a quantity of a product to the cart of a user: creates the cart line if it does not exist,
+     * otherwise increments its quantity. On PostgreSQL this is a single atomic
+     * {@code INSERT ... ON CONFLICT DO UPDATE} statement, so concurrent additions of the same product never
+     * lose an increment. An unknown user or product is reported by the foreign keys of the table.
+     *
+     * @param userId the unique identifier of the user owning the cart
+     * @param productId the unique identifier of the product to add
+     * @param quantity the quantity to add
+     * @param now the timestamp stored as update date, and as creation date for a new line
+     * @return the cart line after the addition
+     * @throws org.springframework.dao.DataIntegrityViolationException if the user or the product does not exist
+     */
+    CartItem addQuantity(Long userId, Long productId, int quantity, long now);
+
+    /**
+     * Adds several products to the cart of a user, with the same semantics as
+     * {@link #addQuantity(Long, Long, int, long)} for each product. On PostgreSQL this is a single
+     * {@code INSERT ... ON CONFLICT DO UPDATE} statement over all the products. The lines are written in product id
+     * order so that two concurrent additions lock them in the same order.
+     *
+     * @param userId the unique identifier of the user owning the cart
+     * @param quantitiesByProduct the quantity to add per product id
+     * @param now the timestamp stored as update date, and as creation date for new lines
+     * @return the written line per product id, telling whether it was created or updated
+     * @throws org.springframework.dao.DataIntegrityViolationException if the user or a product does not exist
+     */
+    Map<Long, AddedLine> addQuantities(Long userId, Map<Long, Integer> quantitiesByProduct, long now);
+}
@@ -0,0 +1,135 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.entity.CartItem;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Implémentation des méthodes de CartItemRepositoryCustom, détectée par Spring Data grâce au suffixe Impl
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+    // S'appuie sur la contrainte uc_cart_user_product : l'incrément est fait par la base, sans lecture préalable.
+    // L'id est fourni (voir PooledIds) : il n'est utilisé que si la ligne est insérée
+    private static final String UPSERT = """
+            insert into cart_item (id, user_id, product_id, quantity, created_at, updated_at)
+            values (:id, :userId, :productId, :quantity, :now, :now)
+            on conflict on constraint uc_cart_user_product
+            do update set quantity = cart_item.quantity + excluded.quantity, updated_at = excluded.updated_at
+            returning id, user_id, product_id, quantity, created_at, updated_at""";
+    // Une seule instruction pour tout le lot, lignes triées par produit. xmax est nul pour une ligne insérée,
+    // renseigné pour une ligne existante mise à jour : la base indique elle-même la branche prise
+    private static final String UPSERT_BATCH = """
+            insert into cart_item (id, user_id, product_id, quantity, created_at, updated_at)
+            select line.id, ?, line.product_id, line.quantity, ?, ?
+            from unnest(cast(? as bigint[]), cast(? as bigint[]), cast(? as integer[])) as line(id, product_id, quantity)
+            order by line.product_id
+            on conflict on constraint uc_cart_user_product
+            do update set quantity = cart_item.quantity + excluded.quantity, updated_at = excluded.updated_at
+            returning id, product_id, quantity, (xmax = 0) as inserted""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ON CONFLICT est propre à PostgreSQL : désactivé pour la base H2 des tests
+    @Value("${db.upsert.on-conflict:true}")
+    private boolean onConflict;
+
+    @Override
+    public CartItem addQuantity(Long userId, Long productId, int quantity, long now) {
+        if (!onConflict) {
+            return addQuantityWithLock(userId, productId, quantity, now);
+        }
+        return (CartItem) entityManager.createNativeQuery(UPSERT, CartItem.class)
+                .setParameter("id", PooledIds.next(entityManager, CartItem.class))
+                .setParameter("userId", userId)
+                .setParameter("productId", productId)
+                .setParameter("quantity", quantity)
+                .setParameter("now", now)
+                .getSingleResult();
+    }
+
+    @Override
+    public Map<Long, AddedLine> addQuantities(Long userId, Map<Long, Integer> quantitiesByProduct, long now) {
+        // Ordre des produits fixe : deux lots concurrents verrouillent les lignes dans le même ordre, sans interblocage
+        Map<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        Map<Long, AddedLine> lines = new HashMap<>();
+        if (!onConflict) {
+            ordered.forEach((productId, quantity) -> {
+                Optional<CartItem> updated = incrementWithLock(userId, productId, quantity, now);
+                CartItem line = updated.orElseGet(() -> insert(userId, productId, quantity, now));
+                lines.put(productId, new AddedLine(line.getId(), line.getQuantity(), updated.isEmpty()));
+            });
+            return lines;
+        }
+        // Ids tirés avant d'ouvrir la connexion : le générateur peut lui-même interroger la séquence
+        Long[] ids = new Long[ordered.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = PooledIds.next(entityManager, CartItem.class);
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_BATCH)) {
+                statement.setLong(1, userId);
+                statement.setLong(2, now);
+                statement.setLong(3, now);
+                statement.setArray(4, connection.createArrayOf("bigint", ids));
+                statement.setArray(5, connection.createArrayOf("bigint", ordered.keySet().toArray(Long[]::new)));
+                statement.setArray(6, connection.createArrayOf("integer", ordered.values().toArray(Integer[]::new)));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        lines.put(rows.getLong("product_id"),
+                                new AddedLine(rows.getLong("id"), rows.getInt("quantity"), rows.getBoolean("inserted")));
+                    }
+                }
+            }
+        });
+        return lines;
+    }
+
+    // Repli portable : verrouille la ligne existante, sinon l'insère (la contrainte unique arbitre deux insertions)
+    private CartItem addQuantityWithLock(Long userId, Long productId, int quantity, long now) {
+        return incrementWithLock(userId, productId, quantity, now)
+                .orElseGet(() -> insert(userId, productId, quantity, now));
+    }
+
+    // Incrémente la ligne existante sous verrou, vide si le produit n'est pas encore dans le panier
+    private Optional<CartItem> incrementWithLock(Long userId, Long productId, int quantity, long now) {
+        List<CartItem> existing = entityManager.createQuery(
+                        "select c from CartItem c where c.user.id = :userId and c.product.id = :productId", CartItem.class)
+                .setParameter("userId", userId)
+                .setParameter("productId", productId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        CartItem cartItem = existing.getFirst();
+        cartItem.setQuantity(cartItem.getQuantity() + quantity);
+        cartItem.setUpdatedAt(now);
+        return Optional.of(cartItem);
+    }
+
+    private CartItem insert(Long userId, Long productId, int quantity, long now) {
+        CartItem cartItem = CartItem.builder()
+                .user(entityManager.getReference(User.class, userId))
+                .product(entityManager.getReference(Product.class, productId))
+                .quantity(quantity)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        entityManager.persist(cartItem);
+        // Les clefs étrangères sont vérifiées ici, dans le repository, et non au commit
+        entityManager.flush();
+        return cartItem;
+    }
+}
@@ -1,9 +1,49 @@
 package com.producttrial.back.repository;
 
+import com.producttrial.back.dto.ProductDTO;
 import com.producttrial.back.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.updatedAt from Product p where p.id = :id")
+    Optional<Long> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("select p.code from Product p where p.code in :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    @Query("""
+            select new com.producttrial.back.dto.ProductDTO(p.id, p.code, p.name, p.description, p.image, p.category,
+                p.price, p.quantity, p.internalReference, p.shellId, p.inventoryStatus, p.rating)
+            from Product p where p.code in :codes""")
+    List<ProductDTO> findDtosByCodeIn(@Param("codes") Collection<String> codes);
+
+    // Curseur côté serveur lu par paquets de fetchSize lignes ; doit être consommé dans une transaction.
+    // Projection DTO : les lignes lues n'entrent pas dans le contexte de persistance
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.producttrial.back.dto.ProductDTO(p.id, p.code, p.name, p.description, p.image, p.category,
+                p.price, p.quantity, p.internalReference, p.shellId, p.inventoryStatus, p.rating)
+            from Product p order by p.id""")
+    Stream<ProductDTO> streamAllDtos();
 }
@@ -0,0 +1,79 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Retrieves a page of the products matching the specification, selected straight into DTOs.
+     * No entity is loaded, so nothing is snapshotted or dirty-checked by the persistence context.
+     *
+     * @param spec the filter to apply
+     * @param pageable the pagination and sorting information
+     * @return the requested page of products, with the total number of matching products
+     */
+    Page<ProductDTO> findDtoPage(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Retrieves a slice of the products matching the specification, selected straight into DTOs,
+     * without running a count query. One extra row is fetched to know whether a next slice exists.
+     *
+     * @param spec the filter to apply
+     * @param pageable the pagination and sorting information
+     * @return the requested slice of products
+     */
+    Slice<ProductDTO> findDtoSlice(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Counts of the facet values, each dimension grouped on its own: rows of (value, count).
+     * A bucket is the floor of the value divided by the bucket width; products without a price or a rating
+     * are not in the histograms.
+     *
+     * @param minPrice the lowest price of the matching products, null when none has a price
+     * @param maxPrice the highest price of the matching products, null when none has a price
+     */
+    record FacetCounts(List<Object[]> categories, List<Object[]> inventoryStatuses,
+                       List<Object[]> priceBuckets, List<Object[]> ratingBuckets,
+                       Double minPrice, Double maxPrice) {
+    }
+
+    /**
+     * Counts the products matching the specification per category, per inventory status, per price bucket and
+     * per rating bucket, along with their price range. The dimensions are grouped separately and read back in a
+     * single {@code UNION ALL} statement, so the number of rows is the sum of the distinct values of each dimension,
+     * not their product.
+     *
+     * @param spec the filter to apply, the same as the listing
+     * @param priceBucketWidth the width of the price buckets, strictly positive
+     * @param ratingBucketWidth the width of the rating buckets, strictly positive
+     * @param maxPriceBuckets above this number of price buckets between the lowest and highest price,
+     *                        no price bucket is returned
+     * @return the counts of each dimension
+     */
+    FacetCounts countFacets(Specification<Product> spec, double priceBucketWidth, double ratingBucketWidth,
+                            long maxPriceBuckets);
+
+    /**
+     * Inserts the given products, or updates the product with the same code when it already exists.
+     * On PostgreSQL the whole list is sent as one JDBC batch of {@code INSERT ... ON CONFLICT (code) DO UPDATE}.
+     * Codes must be unique within the list.
+     *
+     * @param products the products to write, their ids are ignored
+     * @param now the timestamp stored as update date, and as creation date for new products
+     */
+    void upsertByCode(List<ProductDTO> products, long now);
+
+    /**
+     * Computes a version of the whole catalog from the number of products and the latest update date.
+     * A creation or an update moves the latest update date, a deletion changes the number of products.
+     *
+     * @return the version, as {@code <count>-<latest updatedAt>}
+     */
+    String findCatalogVersion();
+}
@@ -0,0 +1,278 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.InventoryStatus;
+import com.producttrial.back.mapper.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaSelect;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+// Implémentation des méthodes de ProductRepositoryCustom, détectée par Spring Data grâce au suffixe Impl
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    private static final String UPSERT_BY_CODE = """
+            insert into products (id, code, name, description, image, category, price, quantity, internal_reference,
+                shell_id, inventory_status, rating, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (code) do update set name = excluded.name, description = excluded.description,
+                image = excluded.image, category = excluded.category, price = excluded.price,
+                quantity = excluded.quantity, internal_reference = excluded.internal_reference,
+                shell_id = excluded.shell_id, inventory_status = excluded.inventory_status,
+                rating = excluded.rating, updated_at = excluded.updated_at""";
+
+    // Dimension d'une ligne de countFacets, en première colonne
+    private static final int CATEGORY_FACET = 0;
+    private static final int STATUS_FACET = 1;
+    private static final int PRICE_FACET = 2;
+    private static final int RATING_FACET = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ON CONFLICT est propre à PostgreSQL : désactivé pour la base H2 des tests
+    @Value("${db.upsert.on-conflict:true}")
+    private boolean onConflict;
+
+    @Override
+    public Page<ProductDTO> findDtoPage(Specification<Product> spec, Pageable pageable) {
+        List<ProductDTO> content = selectDtos(spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<ProductDTO> findDtoSlice(Specification<Product> spec, Pageable pageable) {
+        List<ProductDTO> content = selectDtos(spec, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    // Les colonnes sont lues directement dans le DTO : aucune entité n'entre dans le contexte de persistance
+    private List<ProductDTO> selectDtos(Specification<Product> spec, Pageable pageable, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDTO> query = cb.createQuery(ProductDTO.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductDTO.class,
+                        root.get("id"),
+                        root.get("code"),
+                        root.get("name"),
+                        root.get("description"),
+                        root.get("image"),
+                        root.get("category"),
+                        root.get("price"),
+                        root.get("quantity"),
+                        root.get("internalReference"),
+                        root.get("shellId"),
+                        root.get("inventoryStatus"),
+                        root.get("rating")))
+                .where(spec.toPredicate(root, query, cb));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetCounts countFacets(Specification<Product> spec, double priceBucketWidth, double ratingBucketWidth,
+                                   long maxPriceBuckets) {
+        if (!(priceBucketWidth > 0) || !(ratingBucketWidth > 0)) {
+            throw new IllegalArgumentException("Bucket widths must be strictly positive");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        // Une branche groupée par dimension, réunies par UNION ALL : une seule requête, sans produit cartésien.
+        // Les prix extrêmes sont lus avec les catégories, qui couvrent chaque produit une fois
+        CriteriaQuery<Tuple> categories = cb.createTupleQuery();
+        Root<Product> root = categories.from(Product.class);
+        Path<String> category = root.get("category");
+        Path<Double> price = root.get("price");
+        categories.multiselect(cb.literal(CATEGORY_FACET), category, cb.count(root), cb.min(price), cb.max(price))
+                .where(spec.toPredicate(root, categories, cb))
+                .groupBy(category);
+
+        CriteriaQuery<Tuple> statuses = cb.createTupleQuery();
+        root = statuses.from(Product.class);
+        Path<InventoryStatus> status = root.get("inventoryStatus");
+        statuses.multiselect(cb.literal(STATUS_FACET), status.cast(String.class), cb.count(root),
+                        cb.nullLiteral(Double.class), cb.nullLiteral(Double.class))
+                .where(spec.toPredicate(root, statuses, cb))
+                .groupBy(status);
+
+        CriteriaSelect<Tuple> union = cb.unionAll(cb.unionAll(categories, statuses), cb.unionAll(
+                bucketCounts(cb, spec, PRICE_FACET, "price", priceBucketWidth, maxPriceBuckets),
+                bucketCounts(cb, spec, RATING_FACET, "rating", ratingBucketWidth, null)));
+
+        List<Object[]> categoryCounts = new ArrayList<>();
+        List<Object[]> statusCounts = new ArrayList<>();
+        List<Object[]> priceBuckets = new ArrayList<>();
+        List<Object[]> ratingBuckets = new ArrayList<>();
+        Double minPrice = null;
+        Double maxPrice = null;
+        for (Tuple row : entityManager.createQuery(union).getResultList()) {
+            String value = (String) row.get(1);
+            long count = ((Number) row.get(2)).longValue();
+            switch (((Number) row.get(0)).intValue()) {
+                case CATEGORY_FACET -> {
+                    categoryCounts.add(new Object[]{value, count});
+                    minPrice = combine(minPrice, (Number) row.get(3), Math::min);
+                    maxPrice = combine(maxPrice, (Number) row.get(4), Math::max);
+                }
+                case STATUS_FACET -> statusCounts.add(new Object[]{value != null ? InventoryStatus.valueOf(value) : null, count});
+                case PRICE_FACET -> priceBuckets.add(new Object[]{Double.valueOf(value), count});
+                default -> ratingBuckets.add(new Object[]{Double.valueOf(value), count});
+            }
+        }
+        return new FacetCounts(categoryCounts, statusCounts, priceBuckets, ratingBuckets, minPrice, maxPrice);
+    }
+
+    // Tranches d'un histogramme : floor(valeur / largeur), hors produits sans valeur.
+    // Sans ligne si l'étendue des valeurs dépasse maxBuckets tranches, pour ne pas renvoyer une ligne par produit
+    private static CriteriaQuery<Tuple> bucketCounts(CriteriaBuilder cb, Specification<Product> spec, int facet,
+                                                     String attribute, double width, Long maxBuckets) {
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Path<Double> value = root.get(attribute);
+        // Largeur en littéral : liée en paramètre, PostgreSQL ne reconnaîtrait pas l'expression du select dans le group by
+        Expression<Number> bucket = cb.floor(cb.quot(value, cb.literal(width)));
+
+        List<Predicate> conditions = new ArrayList<>(List.of(spec.toPredicate(root, query, cb), cb.isNotNull(value)));
+        if (maxBuckets != null) {
+            Subquery<Number> span = query.subquery(Number.class);
+            Root<Product> all = span.from(Product.class);
+            Path<Double> allValues = all.get(attribute);
+            span.select(cb.diff(cb.floor(cb.quot(cb.max(allValues), cb.literal(width))),
+                            cb.floor(cb.quot(cb.min(allValues), cb.literal(width)))))
+                    .where(spec.toPredicate(all, query, cb));
+            conditions.add(cb.lt(span, maxBuckets));
+        }
+
+        return query.multiselect(cb.literal(facet), bucket.cast(String.class), cb.count(root),
+                        cb.nullLiteral(Double.class), cb.nullLiteral(Double.class))
+                .where(conditions.toArray(new Predicate[0]))
+                .groupBy(bucket);
+    }
+
+    private static Double combine(Double current, Number candidate, BinaryOperator<Double> pick) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null ? candidate.doubleValue() : pick.apply(current, candidate.doubleValue());
+    }
+
+    @Override
+    public void upsertByCode(List<ProductDTO> products, long now) {
+        if (products.isEmpty()) {
+            return;
+        }
+        if (!onConflict) {
+            upsertByCodeWithEntities(products, now);
+            return;
+        }
+        // Un id par ligne, pris dans le pool pooled-lo : perdu (un seul) si la ligne existe déjà
+        long[] ids = new long[products.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = PooledIds.next(entityManager, Product.class);
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_BY_CODE)) {
+                for (int i = 0; i < ids.length; i++) {
+                    ProductDTO product = products.get(i);
+                    statement.setLong(1, ids[i]);
+                    statement.setString(2, product.getCode());
+                    statement.setString(3, product.getName());
+                    statement.setString(4, product.getDescription());
+                    statement.setString(5, product.getImage());
+                    statement.setString(6, product.getCategory());
+                    statement.setDouble(7, product.getPrice());
+                    statement.setObject(8, product.getQuantity(), Types.INTEGER);
+                    statement.setString(9, product.getInternalReference());
+                    statement.setObject(10, product.getShellId(), Types.BIGINT);
+                    statement.setString(11, product.getInventoryStatus() != null ? product.getInventoryStatus().name() : null);
+                    statement.setObject(12, product.getRating(), Types.DOUBLE);
+                    statement.setLong(13, now);
+                    statement.setLong(14, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    // Repli portable : une lecture des produits existants, puis insertions et mises à jour regroupées en batch JDBC
+    private void upsertByCodeWithEntities(List<ProductDTO> products, long now) {
+        Map<String, Product> existing = new HashMap<>();
+        List<String> codes = products.stream().map(ProductDTO::getCode).toList();
+        for (Product product : entityManager.createQuery("select p from Product p where p.code in :codes", Product.class)
+                .setParameter("codes", codes)
+                .getResultList()) {
+            existing.put(product.getCode(), product);
+        }
+        for (ProductDTO dto : products) {
+            Product product = existing.get(dto.getCode());
+            if (product == null) {
+                product = ProductMapper.toEntity(dto);
+                product.setId(null);
+                product.setCreatedAt(now);
+                product.setUpdatedAt(now);
+                entityManager.persist(product);
+                continue;
+            }
+            product.setName(dto.getName());
+            product.setDescription(dto.getDescription());
+            product.setImage(dto.getImage());
+            product.setCategory(dto.getCategory());
+            product.setPrice(dto.getPrice());
+            product.setQuantity(dto.getQuantity());
+            product.setInternalReference(dto.getInternalReference());
+            product.setShellId(dto.getShellId());
+            product.setInventoryStatus(dto.getInventoryStatus());
+            product.setRating(dto.getRating());
+            product.setUpdatedAt(now);
+        }
+        entityManager.flush();
+    }
+
+    @Override
+    public String findCatalogVersion() {
+        Object[] row = entityManager.createQuery("select count(p), max(p.updatedAt) from Product p", Object[].class)
+                .getSingleResult();
+        return row[0] + "-" + (row[1] != null ? row[1] : 0L);
+    }
+}
@@ -0,0 +1,49 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.dto.ProductFilterDTO;
+import com.producttrial.back.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the JPA criteria used to filter the catalog listing. Each criterion maps to a column
+ * covered by an index of the V6 migration so that the database does the filtering.
+ */
+public class ProductSpecifications {
+    private ProductSpecifications() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Builds a specification matching every criterion set in the filter. A null or empty filter matches all products.
+     *
+     * @param filter the filter criteria, may be null
+     * @return the specification combining the criteria with AND
+     */
+    public static Specification<Product> fromFilter(ProductFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter != null) {
+                if (filter.getCategory() != null) {
+                    predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+                }
+                if (filter.getInventoryStatus() != null) {
+                    predicates.add(cb.equal(root.get("inventoryStatus"), filter.getInventoryStatus()));
+                }
+                if (filter.getMinPrice() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+                }
+                if (filter.getMaxPrice() != null) {
+                    predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+                }
+                if (filter.getMinRating() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), filter.getMinRating()));
+                }
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
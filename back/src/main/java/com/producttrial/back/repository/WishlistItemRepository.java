@@ -1,17 +1,40 @@
 package com.producttrial.back.repository;
 
+import com.producttrial.back.dto.WishlistItemDTO;
 import com.producttrial.back.entity.WishlistItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long> {
+public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long>, WishlistItemRepositoryCustom {
     List<WishlistItem> findByUserId(Long userId);
-    Page<WishlistItem> findByUserId(Pageable pageable, Long userId);
-    Optional<WishlistItem> findByIdAndUserId(Long id, Long userId);
+    Window<WishlistItem> findByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
     Optional<WishlistItem> findByUserIdAndProductId(Long userId, Long productId);
     boolean existsByIdAndUserId(Long id, Long userId);
+    List<WishlistItem> findByUserIdAndProductIdIn(Long userId, Collection<Long> productIds);
+
+    @Query("select w.id from WishlistItem w where w.user.id = :userId and w.id in :ids")
+    List<Long> findIdsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from WishlistItem w where w.user.id = :userId and w.id in :ids")
+    int deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query(value = "select new com.producttrial.back.dto.WishlistItemDTO(w.id, w.product.id) from WishlistItem w where w.user.id = :userId",
+            countQuery = "select count(w) from WishlistItem w where w.user.id = :userId")
+    Page<WishlistItemDTO> findDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select new com.producttrial.back.dto.WishlistItemDTO(w.id, w.product.id) from WishlistItem w where w.id = :id and w.user.id = :userId")
+    Optional<WishlistItemDTO> findDtoByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
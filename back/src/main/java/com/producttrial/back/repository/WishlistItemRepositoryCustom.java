@@ -0,0 +1,19 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.entity.WishlistItem;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WishlistItemRepositoryCustom {
+    /**
+     * Inserts a wishlist line per product for the given user, without loading the user nor the products.
+     * The caller is expected to have checked that the products exist and are not already in the wishlist.
+     *
+     * @param userId the unique identifier of the user owning the wishlist
+     * @param productIds the unique identifiers of the products to add
+     * @param now the timestamp stored as creation and update date
+     * @return the inserted wishlist lines, with their generated ids
+     */
+    List<WishlistItem> addAll(Long userId, Collection<Long> productIds, long now);
+}
@@ -0,0 +1,36 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.entity.User;
+import com.producttrial.back.entity.WishlistItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Implémentation des méthodes de WishlistItemRepositoryCustom, détectée par Spring Data grâce au suffixe Impl
+public class WishlistItemRepositoryImpl implements WishlistItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<WishlistItem> addAll(Long userId, Collection<Long> productIds, long now) {
+        // Références : seules les clefs étrangères sont écrites, aucun SELECT sur users ou products
+        User user = entityManager.getReference(User.class, userId);
+        List<WishlistItem> added = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            WishlistItem wishlistItem = WishlistItem.builder()
+                    .user(user)
+                    .product(entityManager.getReference(Product.class, productId))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            entityManager.persist(wishlistItem);
+            added.add(wishlistItem);
+        }
+        entityManager.flush();
+        return added;
+    }
+}
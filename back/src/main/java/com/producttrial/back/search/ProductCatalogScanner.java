@@ -0,0 +1,45 @@
+package com.producttrial.back.search;
+
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.repository.ProductRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole catalog by keyset batches in id order, used to build the in-memory indexes at startup.
+ * Keyset pagination keeps every batch as cheap as the first one, whatever the size of the catalog.
+ */
+public class ProductCatalogScanner {
+    private static final int BATCH_SIZE = 1000;
+
+    private ProductCatalogScanner() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Passes every product of the repository to the consumer, one batch at a time.
+     *
+     * @param productRepository the repository to read
+     * @param batchConsumer called once per non-empty batch
+     * @return the number of products read
+     */
+    public static long scan(ProductRepository productRepository, Consumer<List<Product>> batchConsumer) {
+        Sort sort = Sort.by("id");
+        long count = 0;
+        Window<Product> window = productRepository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(BATCH_SIZE));
+        while (!window.isEmpty()) {
+            batchConsumer.accept(window.getContent());
+            count += window.size();
+            if (!window.hasNext()) {
+                break;
+            }
+            window = productRepository.findAllBy(window.positionAt(window.size() - 1), sort, Limit.of(BATCH_SIZE));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,514 @@
+package com.producttrial.back.search;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import com.producttrial.back.mapper.ProductMapper;
+import com.producttrial.back.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product name, code, category and description, ranked with BM25.
+ * <p>
+ * Every query term must match (AND). The last term is also matched as a prefix unless the query ends with a space,
+ * so results follow the user while typing. Name and code matches weigh more than category and description matches.
+ * <p>
+ * Each product gets a dense ordinal; postings are primitive arrays of ordinals and frequencies, and a search adds
+ * its scores into reusable arrays indexed by ordinal, so a query allocates nothing per matching product.
+ * <p>
+ * The index is built at startup from the repository and then kept up to date by {@link ProductChangedEvent}
+ * for local changes and by {@link RemoteProductsChangedEvent} for changes made by other nodes.
+ * Searches share a read lock; updates take the write lock for the time of a single product.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int CODE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Un terme complété par préfixe compte un peu moins qu'un terme exact
+    private static final double PREFIX_BOOST = 0.8;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Une seule lecture du repository à la fois : la dernière lue est la dernière appliquée
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // Une reconstruction demandée par un autre noeud est déjà en attente : les suivantes s'y regroupent
+    private final AtomicBoolean remoteRebuildPending = new AtomicBoolean();
+    // Tableaux de score libres ; au plus un par cœur est gardé entre deux recherches
+    private final BlockingQueue<Scratch> scratches = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    // Index servi aux recherches, remplacé d'un bloc à la fin d'une reconstruction
+    private Segment current = new Segment();
+    // Changements reçus pendant une reconstruction, rejoués sur le nouvel index avant l'échange ; null sinon
+    private List<ProductChangedEvent> changesDuringRebuild;
+
+    // positions : place du produit dans la posting de chacun de ses termes, tenue à jour quand elle change
+    private record IndexedProduct(ProductSearchHitDTO hit, String[] terms, int[] positions) {
+
+        private void move(String term, int position) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    positions[i] = position;
+                    return;
+                }
+            }
+        }
+    }
+
+    private record ScoredId(int ordinal, long id, double score) {
+    }
+
+    // Produits d'un terme : ordinaux et fréquences pondérées, non triés
+    private static final class Posting {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private int add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            return size++;
+        }
+
+        // Retire l'entrée en la remplaçant par la dernière : renvoie l'ordinal déplacé, ou -1 si aucun
+        private int removeAt(int position) {
+            int last = --size;
+            if (position == last) {
+                return -1;
+            }
+            ordinals[position] = ordinals[last];
+            frequencies[position] = frequencies[last];
+            return ordinals[position];
+        }
+    }
+
+    // Tableaux d'une recherche, indexés par ordinal et réutilisés d'une recherche à l'autre
+    private static final class Scratch {
+        private double[] scores = new double[0];
+        // Nombre de termes de la requête déjà trouvés par produit
+        private int[] matched = new int[0];
+        // Produits trouvés par le premier terme : les seuls candidats possibles
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        private void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new double[capacity];
+                matched = new int[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        private void touch(int ordinal) {
+            touched[touchedCount++] = ordinal;
+        }
+
+        // Ne remet à zéro que les cases utilisées par la recherche
+        private void reset() {
+            for (int t = 0; t < touchedCount; t++) {
+                scores[touched[t]] = 0;
+                matched[touched[t]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    private static final class Segment {
+        private final TreeMap<String, Posting> postings = new TreeMap<>();
+        // id produit -> ordinal ; les ordinaux libérés sont réutilisés pour garder les tableaux denses
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private IndexedProduct[] documents = new IndexedProduct[16];
+        private long[] ids = new long[16];
+        private int[] lengths = new int[16];
+        private int[] freeOrdinals = new int[16];
+        private int freeCount;
+        private int ordinalCount;
+        private long totalLength;
+
+        private int size() {
+            return ordinals.size();
+        }
+
+        private void apply(ProductChangedEvent change) {
+            switch (change.type()) {
+                case CREATED, UPDATED -> index(change.product());
+                case DELETED -> remove(change.productId());
+                case ALL_DELETED -> {
+                    postings.clear();
+                    ordinals.clear();
+                    Arrays.fill(documents, null);
+                    freeCount = 0;
+                    ordinalCount = 0;
+                    totalLength = 0;
+                }
+            }
+        }
+
+        private void index(ProductDTO product) {
+            remove(product.getId());
+            Map<String, Integer> frequencies = new HashMap<>();
+            addField(frequencies, product.getName(), NAME_WEIGHT);
+            addField(frequencies, product.getCode(), CODE_WEIGHT);
+            addField(frequencies, product.getCategory(), CATEGORY_WEIGHT);
+            addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+            int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : newOrdinal();
+            String[] terms = new String[frequencies.size()];
+            int[] positions = new int[terms.length];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms[i] = entry.getKey();
+                positions[i] = postings.computeIfAbsent(entry.getKey(), key -> new Posting()).add(ordinal, entry.getValue());
+                length += entry.getValue();
+                i++;
+            }
+            documents[ordinal] = new IndexedProduct(ProductMapper.toSearchHit(product), terms, positions);
+            ids[ordinal] = product.getId();
+            lengths[ordinal] = length;
+            ordinals.put(product.getId(), ordinal);
+            totalLength += length;
+        }
+
+        private int newOrdinal() {
+            if (ordinalCount == documents.length) {
+                int capacity = ordinalCount * 2;
+                documents = Arrays.copyOf(documents, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            return ordinalCount++;
+        }
+
+        private void remove(Long productId) {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal == null) {
+                return;
+            }
+            IndexedProduct previous = documents[ordinal];
+            totalLength -= lengths[ordinal];
+            for (int i = 0; i < previous.terms().length; i++) {
+                String term = previous.terms()[i];
+                Posting posting = postings.get(term);
+                int moved = posting.removeAt(previous.positions()[i]);
+                if (moved >= 0) {
+                    documents[moved].move(term, previous.positions()[i]);
+                }
+                if (posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            documents[ordinal] = null;
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = ordinal;
+        }
+    }
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event);
+    }
+
+    // Hors du thread de synchronisation : la relecture passe par la base
+    @Async
+    @EventListener
+    public void onRemoteProductsChanged(RemoteProductsChangedEvent event) {
+        if (event.allProducts()) {
+            if (remoteRebuildPending.compareAndSet(false, true)) {
+                reloadLock.lock();
+                try {
+                    // Remis à false avant de lire : un changement reçu pendant le scan demandera une autre reconstruction
+                    remoteRebuildPending.set(false);
+                    rebuild();
+                } finally {
+                    reloadLock.unlock();
+                }
+            }
+        } else {
+            reload(event.productIds());
+        }
+    }
+
+    /**
+     * Reloads the whole index from the repository, reading the products by batches in id order.
+     * The new index is built aside while searches keep being served by the current one. Changes received
+     * meanwhile are applied to both and replayed on the new index before it replaces the current one,
+     * so a product changed or deleted during the scan is never left stale.
+     */
+    public void rebuild() {
+        reloadLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Segment fresh = new Segment();
+            boolean scanned = false;
+            try {
+                ProductCatalogScanner.scan(productRepository,
+                        batch -> batch.forEach(product -> fresh.index(ProductMapper.toDto(product))));
+                scanned = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (scanned) {
+                        changesDuringRebuild.forEach(fresh::apply);
+                        current = fresh;
+                    }
+                    changesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Product search index built: {} products, {} terms in {} ms",
+                    size(), termCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the given products from the repository, for changes made by another node:
+     * products found are reindexed, the others are removed.
+     *
+     * @param productIds the ids of the changed products
+     */
+    public void reload(Collection<Long> productIds) {
+        reloadLock.lock();
+        try {
+            Map<Long, ProductDTO> found = new HashMap<>();
+            productRepository.findAllById(productIds).forEach(product -> found.put(product.getId(), ProductMapper.toDto(product)));
+            for (Long id : productIds) {
+                ProductDTO product = found.get(id);
+                apply(product != null ? ProductChangedEvent.updated(product) : ProductChangedEvent.deleted(id));
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a product to the index, or replaces it if it is already indexed.
+     *
+     * @param product the product to index
+     */
+    public void index(ProductDTO product) {
+        apply(ProductChangedEvent.updated(product));
+    }
+
+    /**
+     * Removes a product from the index. Does nothing if the product is not indexed.
+     *
+     * @param productId the id of the product to remove
+     */
+    public void remove(Long productId) {
+        apply(ProductChangedEvent.deleted(productId));
+    }
+
+    public void clear() {
+        apply(ProductChangedEvent.allDeleted());
+    }
+
+    /**
+     * Searches the products matching every term of the query, best matches first.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of hits to return
+     * @return the hits with their BM25 score, empty if the query has no term or nothing matches
+     */
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        Scratch scratch = scratches.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        lock.readLock().lock();
+        try {
+            Segment index = current;
+            if (index.size() == 0) {
+                return List.of();
+            }
+            scratch.ensureCapacity(index.ordinalCount);
+            double avgLength = (double) index.totalLength / index.size();
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                int found = 0;
+                if (prefixLast && i == tokens.size() - 1) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Posting> entry
+                            : index.postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+                        if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        double boost = entry.getKey().equals(token) ? 1.0 : PREFIX_BOOST;
+                        found += score(index, entry.getValue(), boost, avgLength, i, scratch);
+                    }
+                } else {
+                    Posting posting = index.postings.get(token);
+                    if (posting != null) {
+                        found += score(index, posting, 1.0, avgLength, i, scratch);
+                    }
+                }
+                if (found == 0) {
+                    // Tous les termes sont obligatoires
+                    return List.of();
+                }
+            }
+            return topHits(index, scratch, tokens.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+            scratch.reset();
+            scratches.offer(scratch);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return current.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ajoute le score du terme aux produits qui ont trouvé tous les termes précédents ;
+    // renvoie le nombre de ces produits qui trouvent le terme pour la première fois
+    private static int score(Segment index, Posting posting, double boost, double avgLength, int token, Scratch scratch) {
+        int n = index.size();
+        int df = posting.size;
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        double baseNorm = K1 * (1 - B);
+        double lengthNorm = K1 * B / avgLength;
+        int[] ordinals = posting.ordinals;
+        int[] frequencies = posting.frequencies;
+        int[] lengths = index.lengths;
+        double[] scores = scratch.scores;
+        int[] matched = scratch.matched;
+        int found = 0;
+        for (int p = 0; p < df; p++) {
+            int ordinal = ordinals[p];
+            int seen = matched[ordinal];
+            if (seen == token) {
+                matched[ordinal] = token + 1;
+                if (token == 0) {
+                    scratch.touch(ordinal);
+                }
+                found++;
+            } else if (seen != token + 1) {
+                // Un terme précédent manque : le produit ne peut plus être retenu
+                continue;
+            }
+            int tf = frequencies[p];
+            scores[ordinal] += boost * idf * tf * (K1 + 1) / (tf + baseNorm + lengthNorm * lengths[ordinal]);
+        }
+        return found;
+    }
+
+    private static List<ProductSearchHitDTO> topHits(Segment index, Scratch scratch, int tokenCount, int limit) {
+        Comparator<ScoredId> ranking = Comparator.comparingDouble(ScoredId::score)
+                .thenComparing(Comparator.comparingLong(ScoredId::id).reversed());
+        // Tas minimum de taille limit : le plus mauvais résultat retenu est en tête
+        PriorityQueue<ScoredId> top = new PriorityQueue<>(limit + 1, ranking);
+        for (int t = 0; t < scratch.touchedCount; t++) {
+            int ordinal = scratch.touched[t];
+            if (scratch.matched[ordinal] != tokenCount) {
+                continue;
+            }
+            double score = scratch.scores[ordinal];
+            long id = index.ids[ordinal];
+            if (top.size() == limit) {
+                // Écarté sans allocation s'il ne passe pas devant le plus mauvais résultat retenu
+                ScoredId worst = top.peek();
+                if (score < worst.score() || score == worst.score() && id > worst.id()) {
+                    continue;
+                }
+            }
+            top.add(new ScoredId(ordinal, id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ProductSearchHitDTO> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ScoredId scored = top.poll();
+            hits.add(index.documents[scored.ordinal()].hit().toBuilder().score(scored.score()).build());
+        }
+        return hits.reversed();
+    }
+
+    private void apply(ProductChangedEvent change) {
+        lock.writeLock().lock();
+        try {
+            current.apply(change);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.producttrial.back.search;
+
+import com.producttrial.back.dto.ProductSuggestionDTO;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.ProductImportFinishedEvent;
+import com.producttrial.back.event.ProductImportStartedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import com.producttrial.back.mapper.ProductMapper;
+import com.producttrial.back.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Autocompletion over product names and codes, ranked by rating.
+ * <p>
+ * Each product is indexed under its normalized code, its normalized name and every word suffix of its name
+ * ("tapis de yoga", "de yoga", "yoga"). The keys are kept in one sorted array, so the keys matching a prefix
+ * form a contiguous range found by binary search. Small ranges are scanned; for prefixes matching more than
+ * {@value #SCAN_THRESHOLD} keys the top suggestions are precomputed at build time. A lookup therefore only
+ * allocates its result list.
+ * <p>
+ * The structure is immutable and published through a volatile field: reads never lock. Product changes
+ * update a source map and schedule a rebuild, coalesced over {@code product.suggest.rebuild-delay} or over ten times
+ * the duration of the last rebuild if longer, so that a large catalog is not rebuilt continuously. During an import,
+ * changes only update the source map and a single rebuild runs once the import is over.
+ * Changes made by other nodes arrive as {@link RemoteProductsChangedEvent} and are reloaded from the repository.
+ */
+@Component
+@Slf4j
+public class ProductSuggestIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int SCAN_THRESHOLD = 256;
+    private static final int MAX_KEYS_PER_PRODUCT = 8;
+    // Une reconstruction est suivie d'une pause d'au moins ce multiple de sa durée : au plus ~10 % d'un coeur
+    private static final int REBUILD_PAUSE_FACTOR = 10;
+    private static final Comparator<ProductSuggestionDTO> RANKING = Comparator
+            .<ProductSuggestionDTO>comparingDouble(ProductSuggestIndex::ratingOf).reversed()
+            .thenComparing(ProductSuggestionDTO::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ProductSuggestionDTO::getId);
+
+    private final ProductRepository productRepository;
+    private final long rebuildDelayMillis;
+    private final Map<Long, ProductSuggestionDTO> products = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    // Imports en cours : leurs changements ne déclenchent pas de reconstruction avant la fin de l'import
+    private final AtomicInteger runningImports = new AtomicInteger();
+    private volatile long lastRebuildMillis;
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private record Snapshot(String[] keys, ProductSuggestionDTO[] entries, Map<String, ProductSuggestionDTO[]> precomputed) {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new ProductSuggestionDTO[0], Map.of());
+    }
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               @Value("${product.suggest.rebuild-delay:100ms}") Duration rebuildDelay) {
+        this.productRepository = productRepository;
+        this.rebuildDelayMillis = rebuildDelay.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadAll();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> products.put(event.productId(), ProductMapper.toSuggestion(event.product()));
+            case DELETED -> products.remove(event.productId());
+            case ALL_DELETED -> products.clear();
+        }
+        if (runningImports.get() == 0) {
+            scheduleRebuild();
+        }
+    }
+
+    @EventListener
+    public void onImportStarted(ProductImportStartedEvent event) {
+        runningImports.incrementAndGet();
+    }
+
+    @EventListener
+    public void onImportFinished(ProductImportFinishedEvent event) {
+        if (runningImports.decrementAndGet() == 0) {
+            scheduleRebuild();
+        }
+    }
+
+    // Modifications faites par un autre noeud : relues en base, hors du thread de synchronisation
+    @Async
+    @EventListener
+    public void onRemoteProductsChanged(RemoteProductsChangedEvent event) {
+        if (event.allProducts()) {
+            scheduleReload();
+            return;
+        }
+        Map<Long, ProductSuggestionDTO> found = new HashMap<>();
+        productRepository.findAllById(event.productIds()).forEach(product ->
+                found.put(product.getId(), ProductMapper.toSuggestion(ProductMapper.toDto(product))));
+        for (Long id : event.productIds()) {
+            ProductSuggestionDTO product = found.get(id);
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                products.remove(id);
+            }
+        }
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Returns the best rated products whose name, a word of their name or code starts with the prefix.
+     *
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions, at most {@value #MAX_SUGGESTIONS}
+     * @return the suggestions, best rated first
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        int max = Math.min(limit, MAX_SUGGESTIONS);
+        String key = SearchTokenizer.toKey(prefix);
+        if (key.isEmpty() || max <= 0) {
+            return new ArrayList<>(0);
+        }
+        Snapshot current = snapshot;
+        List<ProductSuggestionDTO> result = new ArrayList<>(max);
+        ProductSuggestionDTO[] best = current.precomputed().get(key);
+        if (best != null) {
+            for (int i = 0; i < best.length && i < max; i++) {
+                result.add(best[i]);
+            }
+            return result;
+        }
+        String[] keys = current.keys();
+        for (int i = lowerBound(keys, key); i < keys.length && keys[i].startsWith(key); i++) {
+            offer(result, max, current.entries()[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the lookup structure from the current products and publishes it.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<Map.Entry<String, ProductSuggestionDTO>> keyed = new ArrayList<>();
+        for (ProductSuggestionDTO product : products.values()) {
+            for (String key : keysOf(product)) {
+                keyed.add(Map.entry(key, product));
+            }
+        }
+        keyed.sort(Map.Entry.comparingByKey());
+
+        String[] keys = new String[keyed.size()];
+        ProductSuggestionDTO[] entries = new ProductSuggestionDTO[keyed.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyed.get(i).getKey();
+            entries[i] = keyed.get(i).getValue();
+        }
+
+        // Niveau par niveau : un préfixe ne peut dépasser le seuil que si son parent le dépasse aussi
+        Map<String, ProductSuggestionDTO[]> precomputed = new HashMap<>();
+        boolean found = true;
+        for (int length = 1; found; length++) {
+            found = false;
+            int i = 0;
+            while (i < keys.length) {
+                if (keys[i].length() < length) {
+                    i++;
+                    continue;
+                }
+                String prefix = keys[i].substring(0, length);
+                int end = i + 1;
+                while (end < keys.length && keys[end].startsWith(prefix)) {
+                    end++;
+                }
+                if (end - i > SCAN_THRESHOLD) {
+                    List<ProductSuggestionDTO> best = new ArrayList<>(MAX_SUGGESTIONS);
+                    for (int j = i; j < end; j++) {
+                        offer(best, MAX_SUGGESTIONS, entries[j]);
+                    }
+                    precomputed.put(prefix, best.toArray(new ProductSuggestionDTO[0]));
+                    found = true;
+                }
+                i = end;
+            }
+        }
+
+        snapshot = new Snapshot(keys, entries, precomputed);
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.debug("Product suggestions rebuilt: {} products, {} keys, {} precomputed prefixes in {} ms",
+                products.size(), keys.length, precomputed.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    private void reloadAll() {
+        products.clear();
+        ProductCatalogScanner.scan(productRepository, batch -> batch.forEach(product ->
+                products.put(product.getId(), ProductMapper.toSuggestion(ProductMapper.toDto(product)))));
+        rebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild product suggestions", e);
+                }
+            }, nextDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Rechargement complet sur le thread de reconstruction : les demandes reçues entre-temps sont regroupées
+    private void scheduleReload() {
+        if (reloadScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                reloadScheduled.set(false);
+                try {
+                    reloadAll();
+                } catch (RuntimeException e) {
+                    log.error("Failed to reload product suggestions", e);
+                }
+            }, nextDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Plus la reconstruction est longue (gros catalogue), plus les rafales de changements sont regroupées
+    private long nextDelayMillis() {
+        return Math.max(rebuildDelayMillis, lastRebuildMillis * REBUILD_PAUSE_FACTOR);
+    }
+
+    private static List<String> keysOf(ProductSuggestionDTO product) {
+        List<String> keys = new ArrayList<>(MAX_KEYS_PER_PRODUCT);
+        String name = SearchTokenizer.toKey(product.getName());
+        addKey(keys, SearchTokenizer.toKey(product.getCode()));
+        addKey(keys, name);
+        for (int i = name.indexOf(' '); i >= 0 && keys.size() < MAX_KEYS_PER_PRODUCT; i = name.indexOf(' ', i + 1)) {
+            addKey(keys, name.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static void addKey(List<String> keys, String key) {
+        if (!key.isEmpty() && !keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+
+    // Insère le candidat à son rang dans une liste triée de taille limit, sans doublon de produit
+    private static void offer(List<ProductSuggestionDTO> top, int limit, ProductSuggestionDTO candidate) {
+        for (int i = 0; i < top.size(); i++) {
+            if (top.get(i).getId().equals(candidate.getId())) {
+                return;
+            }
+        }
+        if (top.size() == limit && RANKING.compare(candidate, top.get(limit - 1)) >= 0) {
+            return;
+        }
+        int position = top.size();
+        while (position > 0 && RANKING.compare(candidate, top.get(position - 1)) < 0) {
+            position--;
+        }
+        top.add(position, candidate);
+        if (top.size() > limit) {
+            top.remove(limit);
+        }
+    }
+
+    // Premier index dont la clef est >= key (les clefs peuvent être en double)
+    private static int lowerBound(String[] keys, String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double ratingOf(ProductSuggestionDTO suggestion) {
+        return suggestion.getRating() != null ? suggestion.getRating() : 0;
+    }
+}
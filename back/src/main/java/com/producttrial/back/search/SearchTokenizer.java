@@ -0,0 +1,80 @@
+package com.producttrial.back.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: lower case, accents removed, split on anything that is not a letter or a digit.
+ * The same tokenizer is used for indexing and for queries so that "Écharpe" matches "echarpe".
+ */
+public class SearchTokenizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private SearchTokenizer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Normalizes a text the same way as indexed terms (lower case, without accents).
+     *
+     * @param text the text to normalize, may be null
+     * @return the normalized text, empty if the text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits a text into normalized terms.
+     *
+     * @param text the text to split, may be null
+     * @return the terms in order of appearance, empty if the text has none
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalizes a text into a single key: terms separated by one space, without punctuation.
+     * Used by autocompletion, where the typed prefix is compared to whole names rather than to single terms.
+     *
+     * @param text the text to normalize, may be null
+     * @return the key, empty if the text has no term
+     */
+    public static String toKey(String text) {
+        String normalized = normalize(text);
+        StringBuilder key = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !key.isEmpty()) {
+                    key.append(' ');
+                }
+                key.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return key.toString();
+    }
+}
@@ -1,24 +1,36 @@
 package com.producttrial.back.security;
 
+import com.producttrial.back.enums.Role;
 import com.producttrial.back.service.IJwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final IJwtService jwtService;
+    // Vérification du token (lecture du cache ou contrôle de la signature), séparée selon son issue
+    private final Timer validTokens;
+    private final Timer rejectedTokens;
 
-    public JwtAuthenticationFilter(IJwtService jwtService) {
+    public JwtAuthenticationFilter(IJwtService jwtService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
+        this.validTokens = verificationTimer(meterRegistry, "valid");
+        this.rejectedTokens = verificationTimer(meterRegistry, "rejected");
     }
 
     @Override
@@ -26,14 +38,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String token = resolveToken(request);
-        if (token != null && jwtService.isValidToken(token)) {
-            String userId = jwtService.extractUserId(token);
-            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
-            SecurityContextHolder.getContext().setAuthentication(auth);
+        if (token != null) {
+            long start = System.nanoTime();
+            Optional<JwtClaims> parsed = jwtService.parseToken(token);
+            (parsed.isPresent() ? validTokens : rejectedTokens).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            parsed.ifPresent(claims -> {
+                List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                        .flatMap(JwtAuthenticationFilter::authority)
+                        .toList();
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(claims.userId(), null, authorities);
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            });
         }
         filterChain.doFilter(request, response);
     }
 
+    // Le préfixe vient de Role : un rôle inconnu (signé avant sa suppression) n'accorde aucun droit
+    private static Stream<SimpleGrantedAuthority> authority(String role) {
+        try {
+            return Stream.of(new SimpleGrantedAuthority(Role.valueOf(role).authority()));
+        } catch (IllegalArgumentException e) {
+            return Stream.empty();
+        }
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.jwt.verification")
+                .description("JWT verification of the Authorization header")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
@@ -0,0 +1,18 @@
+package com.producttrial.back.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims extracted from a JWT whose signature and expiration have already been verified.
+ *
+ * @param userId    the subject of the token (user id)
+ * @param roles     the roles signed into the token, see {@link com.producttrial.back.enums.Role}
+ * @param expiresAt the expiration instant of the token
+ */
+public record JwtClaims(String userId, List<String> roles, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
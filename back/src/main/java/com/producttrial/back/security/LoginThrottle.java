@@ -0,0 +1,105 @@
+package com.producttrial.back.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.producttrial.back.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Brute-force protection of {@code POST /token}. Failed logins are counted per email and per client IP over a sliding
+ * window; once a key reaches its limit, {@link #checkAllowed(String, String)} rejects the next attempts before any
+ * database lookup or password hashing. The counters live in a Caffeine cache bounded by
+ * {@code security.login-throttle.max-keys}, and a key without failure for two windows is evicted.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+    private final Clock clock;
+    private final long windowMillis;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final Cache<String, SlidingWindowCounter> counters;
+
+    @Autowired
+    public LoginThrottle(@Value("${security.login-throttle.window:15m}") Duration window,
+                         @Value("${security.login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                         @Value("${security.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${security.login-throttle.max-keys:100000}") long maxKeys) {
+        this(window, maxFailuresPerEmail, maxFailuresPerIp, maxKeys, Clock.systemUTC());
+    }
+
+    LoginThrottle(Duration window, int maxFailuresPerEmail, int maxFailuresPerIp, long maxKeys, Clock clock) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                // Au-delà de deux fenêtres sans échec, le compteur vaut 0 : inutile de le garder
+                .expireAfterAccess(window.multipliedBy(2))
+                .ticker(() -> clock.millis() * 1_000_000)
+                .build();
+    }
+
+    /**
+     * Rejects the login attempt when the email or the client IP has too many recent failures.
+     *
+     * @param email the email of the login attempt
+     * @param clientIp the address of the client
+     * @throws TooManyRequestsException if one of the limits is reached
+     */
+    public void checkAllowed(String email, String clientIp) {
+        long now = clock.millis();
+        check(emailKey(email), maxFailuresPerEmail, now);
+        check(ipKey(clientIp), maxFailuresPerIp, now);
+    }
+
+    /**
+     * Counts a failed login for the email and for the client IP.
+     *
+     * @param email the email of the failed attempt
+     * @param clientIp the address of the client
+     */
+    public void recordFailure(String email, String clientIp) {
+        long now = clock.millis();
+        counter(emailKey(email)).increment(now);
+        counter(ipKey(clientIp)).increment(now);
+    }
+
+    /**
+     * Forgets the failures of an email after a successful login. The failures of the IP are kept.
+     *
+     * @param email the email that just logged in
+     */
+    public void recordSuccess(String email) {
+        counters.invalidate(emailKey(email));
+    }
+
+    private void check(String key, int limit, long now) {
+        SlidingWindowCounter counter = counters.getIfPresent(key);
+        if (counter != null && counter.estimate(now) >= limit) {
+            long retryAfterSeconds = Math.max(1, counter.millisUntilNextWindow(now) / 1000);
+            log.warn("Login throttled for {} (retry after {} s)", key, retryAfterSeconds);
+            throw new TooManyRequestsException("Too many failed login attempts, retry later", retryAfterSeconds);
+        }
+    }
+
+    private SlidingWindowCounter counter(String key) {
+        return counters.get(key, k -> new SlidingWindowCounter(windowMillis));
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + (email == null ? "" : email.strip().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+}
@@ -1,6 +1,8 @@
 package com.producttrial.back.security;
 
+import com.producttrial.back.enums.Role;
 import com.producttrial.back.service.IJwtService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
@@ -21,14 +23,16 @@ import java.util.Map;
 @Configuration
 public class SecurityConfig {
     private final IJwtService jwtService;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(IJwtService jwtService) {
+    public SecurityConfig(IJwtService jwtService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService, meterRegistry);
 
         http.csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -36,6 +40,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/account", "/token").permitAll()
                         .requestMatchers(HttpMethod.GET, "/products/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // Métriques (endpoint de scrape) : réservées aux admins comme les routes d'administration
+                        .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.authority())
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
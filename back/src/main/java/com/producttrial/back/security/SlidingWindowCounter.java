@@ -0,0 +1,66 @@
+package com.producttrial.back.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free sliding-window counter. It keeps the count of the current fixed window and of the previous one, and
+ * estimates the count over the last window length by weighting the previous count by the part of it still covered.
+ * Updates swap an immutable state with compare-and-set, so concurrent increments never block each other.
+ */
+final class SlidingWindowCounter {
+    private final long windowMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(new State(Long.MIN_VALUE, 0, 0));
+
+    private record State(long window, int current, int previous) {
+        // Bascule vers la fenêtre demandée : la fenêtre courante devient la précédente si elles se suivent
+        State rollTo(long target) {
+            if (window == target) {
+                return this;
+            }
+            return new State(target, 0, window == target - 1 ? current : 0);
+        }
+    }
+
+    SlidingWindowCounter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Adds one event at the given time.
+     *
+     * @param nowMillis the current time
+     * @return the estimated number of events over the last window, this one included
+     */
+    double increment(long nowMillis) {
+        long window = nowMillis / windowMillis;
+        State previous;
+        State next;
+        do {
+            previous = state.get();
+            State rolled = previous.rollTo(window);
+            next = new State(window, rolled.current() + 1, rolled.previous());
+        } while (!state.compareAndSet(previous, next));
+        return estimate(next, nowMillis);
+    }
+
+    /**
+     * @param nowMillis the current time
+     * @return the estimated number of events over the last window
+     */
+    double estimate(long nowMillis) {
+        return estimate(state.get().rollTo(nowMillis / windowMillis), nowMillis);
+    }
+
+    /**
+     * @param nowMillis the current time
+     * @return the time until the current fixed window ends
+     */
+    long millisUntilNextWindow(long nowMillis) {
+        return windowMillis - nowMillis % windowMillis;
+    }
+
+    private double estimate(State current, long nowMillis) {
+        double elapsed = (double) (nowMillis % windowMillis) / windowMillis;
+        return current.previous() * (1 - elapsed) + current.current();
+    }
+}
@@ -1,5 +1,10 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.Role;
+
+import java.util.List;
+
 public interface IAuthorizationService {
 
     /**
@@ -14,6 +19,8 @@ public interface IAuthorizationService {
      * Ensures that the current user has administrative privileges.
      * This method performs a validation to check if the user's role meets
      * the required admin permissions.
+     * The check relies only on the authorities of the security context (signed into the JWT),
+     * so it does not query the database.
      * If the user does not have admin rights, an appropriate exception is thrown
      * to indicate the lack of authorization.
      * This method is typically used to secure access to features or actions
@@ -28,4 +35,13 @@ public interface IAuthorizationService {
      *         or null if no user is authenticated.
      */
     Long getCurrentUserId();
+
+    /**
+     * Computes the roles granted to the given user. The result is signed into the JWT
+     * at login time so that later authorization checks can be done from the security context.
+     *
+     * @param user the user whose roles are to be computed
+     * @return the list of roles granted to the user, never empty
+     */
+    List<Role> rolesOf(User user);
 }
@@ -1,9 +1,13 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
 import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartSummaryDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.entity.CartItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,11 +24,14 @@ public interface ICartItemService {
     List<CartItem> findByUserId(Long userId);
     /**
      * Persists the provided cart item details for a specific user.
-     * If a cart item with the same product already exists for the user, it will be updated with the new quantity.
+     * If a cart item with the same product already exists for the user, its quantity is incremented atomically,
+     * so concurrent additions of the same product are all counted.
      *
      * @param dto the data transfer object containing the cart item details, including product ID and quantity
      * @param userId the unique identifier of the user for whom the cart item is to be saved
      * @return the saved cart item as a persisted entity
+     * @throws com.producttrial.back.exception.ProductNotFoundException if the product does not exist
+     * @throws com.producttrial.back.exception.UserNotFoundException if the user does not exist
      */
     CartItem save(CartItemDTO dto, Long userId);
 
@@ -42,6 +49,28 @@ public interface ICartItemService {
      */
     void deleteAll();
 
+    /**
+     * Adds several products to the cart of the specified user in a single transaction.
+     * Quantities requested several times for the same product are summed. Unknown products are reported
+     * in the result and do not prevent the other items from being added.
+     *
+     * @param dtos the items to add, each with a product ID and a quantity
+     * @param userId the unique identifier of the user owning the cart
+     * @return one result per requested item, in request order
+     * @throws com.producttrial.back.exception.UserNotFoundException if the user does not exist
+     */
+    List<BatchItemResultDTO> saveBatch(List<CartItemDTO> dtos, Long userId);
+
+    /**
+     * Deletes several cart items of the specified user in a single transaction.
+     * Items that do not exist or belong to another user are reported as not found.
+     *
+     * @param ids the unique identifiers of the cart items to delete
+     * @param userId the unique identifier of the user who owns the cart items
+     * @return one result per requested id, in request order
+     */
+    List<BatchItemResultDTO> deleteBatch(List<Long> ids, Long userId);
+
     // Méthode de cartItemDTO
 
     /**
@@ -60,4 +89,26 @@ public interface ICartItemService {
      * @return an Optional containing the CartItemDTO if found, or an empty Optional if no cart item exists with the given ID and user ID
      */
     Optional<CartItemDTO> getCartItemById(Long id, Long userId);
+
+    /**
+     * Retrieves a page of cart items of the specified user using keyset (seek) pagination, without any count query.
+     *
+     * @param cursor the opaque cursor returned by the previous page, or null for the first page
+     * @param sort the sort property for the first page (id, createdAt or updatedAt)
+     * @param direction the sort direction for the first page
+     * @param size the maximum number of cart items to return
+     * @param userId the unique identifier of the user whose cart items are to be retrieved
+     * @return a page of CartItemDTOs with the cursor of the next page
+     */
+    CursorPageDTO<CartItemDTO> scrollCart(String cursor, String sort, Sort.Direction direction, int size, Long userId);
+
+    /**
+     * Retrieves the whole cart of the specified user with the details of each product (name, image, price,
+     * inventory status), the line totals, the number of items and the subtotal, read in a single query.
+     *
+     * @param userId the unique identifier of the user whose cart is to be retrieved
+     * @return the cart lines and totals, with no line if the cart is empty
+     */
+    CartSummaryDTO getCartSummary(Long userId);
+
 }
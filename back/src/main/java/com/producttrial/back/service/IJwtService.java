@@ -1,5 +1,11 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.enums.Role;
+import com.producttrial.back.security.JwtClaims;
+
+import java.util.Collection;
+import java.util.Optional;
+
 public interface IJwtService {
     /**
      * Generates a JWT (JSON Web Token) for the given email address.
@@ -9,6 +15,16 @@ public interface IJwtService {
      */
     String generateToken(Long userId);
 
+    /**
+     * Generates a JWT for the given user, carrying its roles as a signed claim so that
+     * authorization checks do not need to load the user from the database.
+     *
+     * @param userId the user id for which the token is to be generated
+     * @param roles the roles granted to the user
+     * @return a JWT string representing the token
+     */
+    String generateToken(Long userId, Collection<Role> roles);
+
     /**
      * Extracts the user ID from the given JWT token.
      *
@@ -25,4 +41,14 @@ public interface IJwtService {
      */
     boolean isValidToken(String token);
 
+    /**
+     * Validates the provided token and extracts its claims in a single pass.
+     * Tokens that were already verified are served from a bounded cache until they expire,
+     * so the signature of a given token is checked only once.
+     *
+     * @param token the JWT token to validate
+     * @return an Optional containing the verified claims, or an empty Optional if the token is invalid or expired
+     */
+    Optional<JwtClaims> parseToken(String token);
+
 }
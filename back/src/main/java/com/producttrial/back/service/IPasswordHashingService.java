@@ -0,0 +1,43 @@
+package com.producttrial.back.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IPasswordHashingService {
+    /**
+     * Hashes a password on the hashing executor and waits for the result.
+     *
+     * @param rawPassword the password to hash
+     * @return the encoded password
+     * @throws com.producttrial.back.exception.PasswordHashingUnavailableException if the executor is saturated
+     *         or the hash is not computed in time
+     */
+    String hash(String rawPassword);
+
+    /**
+     * Hashes a password on the hashing executor without waiting for the result.
+     *
+     * @param rawPassword the password to hash
+     * @return a future completed with the encoded password, or failed when the executor is saturated
+     */
+    CompletableFuture<String> hashAsync(String rawPassword);
+
+    /**
+     * Checks a password against its encoded form on the hashing executor and waits for the result.
+     *
+     * @param rawPassword the password to check
+     * @param encodedPassword the stored encoded password
+     * @return true if the password matches
+     * @throws com.producttrial.back.exception.PasswordHashingUnavailableException if the executor is saturated
+     *         or the check is not done in time
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * Tells whether an encoded password was produced with another cost than the configured one
+     * and should be hashed again at the next successful login.
+     *
+     * @param encodedPassword the stored encoded password
+     * @return true if the password should be hashed again
+     */
+    boolean needsRehash(String encodedPassword);
+}
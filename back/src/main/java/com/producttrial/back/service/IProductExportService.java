@@ -0,0 +1,20 @@
+package com.producttrial.back.service;
+
+import com.producttrial.back.enums.ImportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IProductExportService {
+    /**
+     * Writes the whole catalog, ordered by id, as CSV (with a header line) or JSON Lines encoded in UTF-8.
+     * Products are read from a database cursor and written as they come, so memory use does not depend on the
+     * size of the catalog.
+     *
+     * @param format the format of the output
+     * @param output the stream to write to, flushed but not closed
+     * @return the number of exported products
+     * @throws IOException if the output cannot be written
+     */
+    long exportProducts(ImportFormat format, OutputStream output) throws IOException;
+}
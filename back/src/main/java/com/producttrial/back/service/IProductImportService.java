@@ -0,0 +1,22 @@
+package com.producttrial.back.service;
+
+import com.producttrial.back.dto.ImportReportDTO;
+import com.producttrial.back.enums.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IProductImportService {
+    /**
+     * Imports products from a CSV or JSON Lines stream, without holding the whole input in memory.
+     * Each row is validated against the constraints of {@link com.producttrial.back.dto.ProductDTO}, then valid rows
+     * are upserted on their code by chunks, each chunk in its own transaction. Invalid rows, and the rows of a chunk
+     * rejected by the database, are reported without stopping the import.
+     *
+     * @param input the body of the import, encoded in UTF-8
+     * @param format the format of the body
+     * @return the number of created, updated and failed rows, with the error of each failed row
+     * @throws IOException if the input cannot be read
+     */
+    ImportReportDTO importProducts(InputStream input, ImportFormat format) throws IOException;
+}
@@ -1,12 +1,22 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.dto.CursorPageDTO;
+import com.producttrial.back.dto.ListingPageDTO;
 import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import com.producttrial.back.dto.ProductFilterDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
 import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface IProductService {
     // Méthodes de Product
@@ -25,6 +35,14 @@ public interface IProductService {
      */
     Optional<Product> findById(Long id);
 
+    /**
+     * Returns those of the given ids that belong to an existing product, in a single query.
+     *
+     * @param ids the product ids to check
+     * @return the ids of the existing products, empty if none exists
+     */
+    Set<Long> findExistingIds(Collection<Long> ids);
+
     /**
      * Persists the given product in the database.
      *
@@ -67,6 +85,16 @@ public interface IProductService {
      */
     Page<ProductDTO> getAllProducts(Pageable pageable);
 
+    /**
+     * Retrieves a paginated list of the products matching the given filter and maps them to ProductDTO objects.
+     * The filter is translated into SQL predicates; without any criterion this is the same as {@link #getAllProducts(Pageable)}.
+     *
+     * @param filter the filter criteria (category, inventory status, price range, minimum rating), may be null
+     * @param pageable the pagination and sorting information
+     * @return a page of ProductDTO objects matching the filter
+     */
+    Page<ProductDTO> getAllProducts(ProductFilterDTO filter, Pageable pageable);
+
     /**
      * Retrieves a product by its unique identifier and maps it to a ProductDTO.
      *
@@ -75,4 +103,79 @@ public interface IProductService {
      */
     Optional<ProductDTO> getProductById(Long id);
 
+    /**
+     * Retrieves the last modification time of a product without loading it, to answer conditional requests.
+     *
+     * @param id the unique identifier of the product
+     * @return the updatedAt timestamp of the product, or an empty Optional if no product exists with the given id
+     */
+    Optional<Long> getProductVersion(Long id);
+
+    /**
+     * Retrieves a version of the whole catalog, which changes whenever any product is created, updated or deleted.
+     * Used as validator of the listing responses.
+     *
+     * @return the current catalog version
+     */
+    String getCatalogVersion();
+
+    /**
+     * Retrieves a page of products using keyset (seek) pagination, without any count query.
+     * The returned cursor encodes the sort key and id of the last product, so deep pages cost the same as the first one.
+     *
+     * @param cursor the opaque cursor returned by the previous page, or null for the first page
+     * @param sort the sort property for the first page (id, code, name, price, createdAt or updatedAt)
+     * @param direction the sort direction for the first page
+     * @param size the maximum number of products to return
+     * @return a page of ProductDTO objects with the cursor of the next page
+     */
+    CursorPageDTO<ProductDTO> scrollProducts(String cursor, String sort, Sort.Direction direction, int size);
+
+    /**
+     * Retrieves a page of products with a configurable way of computing the total.
+     * With {@link CountMode#NONE} and {@link CountMode#ESTIMATE} no count query is run per request:
+     * the page is fetched as a slice, and the total is either omitted or taken from a periodically refreshed estimate.
+     * On the last page the total is always exact since it can be derived from the page itself.
+     * The estimate covers the whole catalog, so it is not returned when the listing is filtered.
+     *
+     * @param pageable the pagination and sorting information
+     * @param countMode how the total number of products is computed
+     * @param filter the filter criteria, may be null
+     * @return a page of ProductDTO objects, with the total flagged as exact or approximate
+     */
+    ListingPageDTO<ProductDTO> getProductListing(Pageable pageable, CountMode countMode, ProductFilterDTO filter);
+
+    /**
+     * Searches products by full text over their name, code, category and description.
+     * The search is served by an in-memory index and never queries the database.
+     * The last word of the query is also matched as a prefix, unless the query ends with a space.
+     *
+     * @param query the text to search
+     * @param limit the maximum number of results
+     * @return the matching products ranked by relevance, empty if nothing matches
+     */
+    List<ProductSearchHitDTO> searchProducts(String query, int limit);
+
+    /**
+     * Suggests products whose name, a word of their name or code starts with the given prefix, best rated first.
+     * Served from memory, for autocompletion on every keystroke.
+     *
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, empty if nothing matches
+     */
+    List<ProductSuggestionDTO> suggestProducts(String prefix, int limit);
+
+    /**
+     * Computes the facets of the products matching the filter: counts per category and per inventory status,
+     * and price and rating histograms. All facets come from a single statement using the listing filter;
+     * the facets of the whole catalog are cached until the next product change.
+     *
+     * @param filter the filter criteria, may be null
+     * @param priceBucketWidth the width of the price histogram buckets
+     * @return the facets of the matching products
+     * @throws com.producttrial.back.exception.InvalidFacetRequestException if the width would split the
+     *         price range of the matching products into too many buckets
+     */
+    ProductFacetsDTO getFacets(ProductFilterDTO filter, double priceBucketWidth);
 }
@@ -37,6 +37,15 @@ public interface IUserService {
      */
     User save(User user);
 
+    /**
+     * Hashes the password again with the configured cost, in the background, and stores it unless the password
+     * was changed in the meantime. Called after a successful login when the stored hash uses another cost.
+     *
+     * @param user the user who just logged in, with the stored encoded password
+     * @param rawPassword the password the user logged in with
+     */
+    void rehashPassword(User user, String rawPassword);
+
     /**
      * Updates an existing user entity with the provided details.
      * The user to update is identified by the specified unique ID.
@@ -1,9 +1,12 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.dto.WishlistItemDTO;
 import com.producttrial.back.entity.WishlistItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +46,28 @@ public interface IWishlistItemService {
      */
     void deleteAll();
 
+    /**
+     * Adds several products to the wishlist of the specified user in a single transaction.
+     * Products already in the wishlist and unknown products are reported in the result and do not prevent
+     * the other items from being added.
+     *
+     * @param dtos the items to add, each with a product ID
+     * @param userId the unique identifier of the user owning the wishlist
+     * @return one result per requested item, in request order
+     * @throws com.producttrial.back.exception.UserNotFoundException if the user does not exist
+     */
+    List<BatchItemResultDTO> saveBatch(List<WishlistItemDTO> dtos, Long userId);
+
+    /**
+     * Deletes several wishlist items of the specified user in a single transaction.
+     * Items that do not exist or belong to another user are reported as not found.
+     *
+     * @param ids the unique identifiers of the wishlist items to delete
+     * @param userId the unique identifier of the user who owns the wishlist items
+     * @return one result per requested id, in request order
+     */
+    List<BatchItemResultDTO> deleteBatch(List<Long> ids, Long userId);
+
 
     // Méthode de wishlistItemDTO
 
@@ -63,4 +88,17 @@ public interface IWishlistItemService {
      * @return an Optional containing the WishlistItemDTO if found, or an empty Optional if no item exists with the given id for the specified user
      */
     Optional<WishlistItemDTO> getWishlistItemById(Long id, Long userId);
+
+    /**
+     * Retrieves a page of wishlist items of the specified user using keyset (seek) pagination, without any count query.
+     *
+     * @param cursor the opaque cursor returned by the previous page, or null for the first page
+     * @param sort the sort property for the first page (id, createdAt or updatedAt)
+     * @param direction the sort direction for the first page
+     * @param size the maximum number of wishlist items to return
+     * @param userId the unique identifier of the user whose wishlist is to be retrieved
+     * @return a page of WishlistItemDTOs with the cursor of the next page
+     */
+    CursorPageDTO<WishlistItemDTO> scrollWishlist(String cursor, String sort, Sort.Direction direction, int size, Long userId);
+
 }
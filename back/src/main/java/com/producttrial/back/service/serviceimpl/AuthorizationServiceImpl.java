@@ -1,15 +1,19 @@
 package com.producttrial.back.service.serviceimpl;
 
 import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.Role;
 import com.producttrial.back.service.IAuthorizationService;
 import com.producttrial.back.service.IUserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -30,8 +34,8 @@ public class AuthorizationServiceImpl implements IAuthorizationService {
 
     @Override
     public void ensureAdmin() {
-        String email = currentUserEmail();
-        if (email == null || !email.equalsIgnoreCase(ADMIN_EMAIL)) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || !hasAuthority(auth, Role.ADMIN.authority())) {
             throw new AccessDeniedException("Access denied: only admin can access this resource");
         }
     }
@@ -44,4 +48,21 @@ public class AuthorizationServiceImpl implements IAuthorizationService {
         }
         return Long.parseLong(auth.getName());
     }
+
+    @Override
+    public List<Role> rolesOf(User user) {
+        if (user.getEmail() != null && user.getEmail().equalsIgnoreCase(ADMIN_EMAIL)) {
+            return List.of(Role.USER, Role.ADMIN);
+        }
+        return List.of(Role.USER);
+    }
+
+    private static boolean hasAuthority(Authentication auth, String authority) {
+        for (GrantedAuthority granted : auth.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,33 +1,64 @@
 package com.producttrial.back.service.serviceimpl;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
 import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartLineDTO;
+import com.producttrial.back.dto.CartSummaryDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.entity.CartItem;
-import com.producttrial.back.entity.Product;
-import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.BatchItemStatus;
 import com.producttrial.back.exception.CartItemNotFoundException;
+import com.producttrial.back.exception.ConcurrentCartUpdateException;
 import com.producttrial.back.exception.ProductNotFoundException;
 import com.producttrial.back.exception.UserNotFoundException;
+import com.producttrial.back.mapper.BatchResultMapper;
 import com.producttrial.back.mapper.CartItemMapper;
+import com.producttrial.back.mapper.CursorMapper;
 import com.producttrial.back.repository.CartItemRepository;
+import com.producttrial.back.repository.CartItemRepositoryCustom.AddedLine;
 import com.producttrial.back.service.ICartItemService;
 import com.producttrial.back.service.IProductService;
-import com.producttrial.back.service.IUserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CartItemServiceImpl implements ICartItemService {
+    private static final Map<String, Class<?>> SCROLL_SORTABLE = Map.of(
+            "id", Long.class,
+            "createdAt", Long.class,
+            "updatedAt", Long.class);
+
+    private static final String FK_PRODUCT = "fk_cart_item_product";
+    private static final String FK_USER = "fk_cart_item_user";
+    private static final String UC_USER_PRODUCT = "uc_cart_user_product";
+    // Conversion entités -> DTO d'une page, mesurée à part des requêtes SQL
+    private static final String MAPPING_TIMER = "mapping.dto";
+
     private final CartItemRepository cartItemRepository;
-    private final IUserService userService;
     private final IProductService productService;
+    private final MeterRegistry meterRegistry;
 
     // Méthode de CartItem
 
@@ -38,36 +69,21 @@ public class CartItemServiceImpl implements ICartItemService {
     }
 
     @Override
+    @Transactional
     public CartItem save(CartItemDTO dto, Long userId) {
-        User user = userService.findById(userId).orElseThrow(() -> {
-            log.warn("User not found for update id={}", userId);
-            return new UserNotFoundException(userId);
-        });
         Long productId = dto.getProductId();
-        Product product = productService.findById(productId).orElseThrow(() -> {
-            log.warn("Product not found for update id={}", productId);
-            return new ProductNotFoundException(productId);
-        });
-
-        long now = System.currentTimeMillis();
-        Optional<CartItem> existingCartItem = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        if (existingCartItem.isPresent()) {
-            CartItem existing = existingCartItem.get();
-            existing.setQuantity(existing.getQuantity() + dto.getQuantity());
-            existing.setUpdatedAt(now);
-            return cartItemRepository.save(existing);
+        try {
+            CartItem saved = cartItemRepository.addQuantity(userId, productId, dto.getQuantity(), System.currentTimeMillis());
+            log.debug("Saved cart item with id {}", saved.getId());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // L'utilisateur et le produit ne sont pas relus : leur absence est signalée par les clefs étrangères
+            throw translateViolation(e, userId, productId);
+        } catch (PessimisticLockingFailureException e) {
+            // Repli sans ON CONFLICT : la seconde insertion concurrente attend la première sur l'index unique
+            log.warn("Concurrent cart addition of product id={} for user id={}", productId, userId);
+            throw new ConcurrentCartUpdateException(productId);
         }
-
-        CartItem newCartItem = CartItem.builder()
-                .user(user)
-                .product(product)
-                .quantity(dto.getQuantity())
-                .createdAt(now)
-                .updatedAt(now)
-                .build();
-        CartItem saved = cartItemRepository.save(newCartItem);
-        log.debug("Saved cart item with id {}", saved.getId());
-        return saved;
     }
 
     @Override
@@ -91,15 +107,119 @@ public class CartItemServiceImpl implements ICartItemService {
         log.info("Deleted all cart items");
     }
 
+    @Override
+    @Transactional
+    public List<BatchItemResultDTO> saveBatch(List<CartItemDTO> dtos, Long userId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItemDTO dto : dtos) {
+            quantities.merge(dto.getProductId(), dto.getQuantity(), Integer::sum);
+        }
+        quantities.keySet().retainAll(productService.findExistingIds(quantities.keySet()));
+
+        Map<Long, AddedLine> lines = Map.of();
+        if (!quantities.isEmpty()) {
+            try {
+                // L'upsert renvoie l'id, la quantité finale et la branche prise (création ou incrément) de chaque ligne
+                lines = cartItemRepository.addQuantities(userId, quantities, System.currentTimeMillis());
+            } catch (DataIntegrityViolationException e) {
+                throw translateViolation(e, userId, null);
+            }
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            Long productId = dtos.get(i).getProductId();
+            AddedLine line = lines.get(productId);
+            if (line == null) {
+                results.add(BatchItemResultDTO.builder()
+                        .index(i)
+                        .productId(productId)
+                        .status(BatchItemStatus.NOT_FOUND)
+                        .message(new ProductNotFoundException(productId).getMessage())
+                        .build());
+                continue;
+            }
+            results.add(BatchItemResultDTO.builder()
+                    .index(i)
+                    .id(line.id())
+                    .productId(productId)
+                    .quantity(line.quantity())
+                    .status(line.created() ? BatchItemStatus.CREATED : BatchItemStatus.UPDATED)
+                    .build());
+        }
+        log.info("Added {} products to the cart of user id={} ({} requested items)", lines.size(), userId, dtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResultDTO> deleteBatch(List<Long> ids, Long userId) {
+        Set<Long> owned = new HashSet<>(cartItemRepository.findIdsByUserIdAndIdIn(userId, ids));
+        if (!owned.isEmpty()) {
+            cartItemRepository.deleteByUserIdAndIdIn(userId, owned);
+        }
+        log.info("Deleted {} cart items of user id={} ({} requested ids)", owned.size(), userId, ids.size());
+        return BatchResultMapper.toDeletionResults(ids, owned, id -> new CartItemNotFoundException(id).getMessage());
+    }
+
     // Méthode de CartItemDTO
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CartItemDTO> getCart(Pageable pageable, Long userId) {
-        return cartItemRepository.findByUserId(pageable, userId).map(CartItemMapper::toDto);
+        return cartItemRepository.findDtosByUserId(userId, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<CartItemDTO> getCartItemById(Long id, Long userId) {
-        return cartItemRepository.findByIdAndUserId(id, userId).map(CartItemMapper::toDto);
+        return cartItemRepository.findDtoByIdAndUserId(id, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CartItemDTO> scrollCart(String cursor, String sort, Sort.Direction direction, int size, Long userId) {
+        CursorMapper.Cursor decoded = CursorMapper.decode(cursor, sort, direction, SCROLL_SORTABLE);
+        Window<CartItem> window = cartItemRepository.findByUserId(userId, decoded.position(), decoded.sort(), Limit.of(size));
+        return meterRegistry.timer(MAPPING_TIMER, "type", "cart-item")
+                .record(() -> CursorMapper.toPage(window, CartItemMapper::toDto, decoded));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartSummaryDTO getCartSummary(Long userId) {
+        List<CartLineDTO> lines = cartItemRepository.findLinesByUserId(userId);
+        return meterRegistry.timer(MAPPING_TIMER, "type", "cart-summary")
+                .record(() -> CartItemMapper.toSummary(lines));
+    }
+
+    // Exception métier correspondant à la clef étrangère violée, ou l'exception d'origine
+    private static RuntimeException translateViolation(DataIntegrityViolationException e, Long userId, Long productId) {
+        String constraint = violatedConstraint(e);
+        if (productId != null && constraint.contains(FK_PRODUCT)) {
+            log.warn("Product not found for cart addition id={}", productId);
+            return new ProductNotFoundException(productId);
+        }
+        if (constraint.contains(FK_USER)) {
+            log.warn("User not found for cart addition id={}", userId);
+            return new UserNotFoundException(userId);
+        }
+        // Repli sans ON CONFLICT : deux premiers ajouts concurrents du même produit, le second viole la contrainte unique
+        if (constraint.contains(UC_USER_PRODUCT)) {
+            log.warn("Concurrent cart addition of product id={} for user id={}", productId, userId);
+            return new ConcurrentCartUpdateException(productId);
+        }
+        return e;
+    }
+
+    // Nom de la contrainte violée, en minuscules (H2 les met en majuscules), ou le message de la cause sinon
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        Throwable root = e.getMostSpecificCause();
+        return root.getMessage() != null ? root.getMessage().toLowerCase(Locale.ROOT) : "";
     }
 }
@@ -0,0 +1,162 @@
+package com.producttrial.back.service.serviceimpl;
+
+import com.producttrial.back.exception.PasswordHashingUnavailableException;
+import com.producttrial.back.service.IPasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the BCrypt work (about 100 ms of CPU at cost 10) on a dedicated pool of platform threads, sized below the number
+ * of processors so that a login storm cannot take all the CPU from the other requests. The queue is bounded: when it is
+ * full, or when a hash is not computed within {@code security.password.hashing.timeout}, the caller gets a
+ * {@link PasswordHashingUnavailableException}, answered with a 503.
+ */
+@Service
+@Slf4j
+public class PasswordHashingServiceImpl implements IPasswordHashingService {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    // Temps vu par l'appelant : attente dans la file comprise
+    private final Timer hashTimer;
+    private final Timer matchTimer;
+
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${security.password.bcrypt-strength:10}") int strength,
+                                      @Value("${security.password.hashing.threads:0}") int threads,
+                                      @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                      @Value("${security.password.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.timeoutMillis = timeout.toMillis();
+        // 0 : la moitié des processeurs, pour laisser de la place aux autres requêtes
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = hashingTimer(meterRegistry, "hash");
+        this.matchTimer = hashingTimer(meterRegistry, "matches");
+        log.info("Password hashing executor: {} threads, queue of {}, BCrypt strength {}", poolSize, queueCapacity, strength);
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return hashTimer.record(() -> await(submit(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    @Override
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new PasswordHashingUnavailableException("Password hashing capacity exceeded"));
+        }
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return matchTimer.record(() -> await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    public int activeTasks() {
+        return executor.getActiveCount();
+    }
+
+    public long completedTasks() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long rejectedTasks() {
+        return rejected.get();
+    }
+
+    public long timedOutTasks() {
+        return timedOut.get();
+    }
+
+    private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("security.password.hashing")
+                .description("BCrypt work on the password hashing executor, queue wait included")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Password hashing rejected: {} tasks queued", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Password hashing capacity exceeded");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            log.warn("Password hashing not done within {} ms", timeoutMillis);
+            throw new PasswordHashingUnavailableException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
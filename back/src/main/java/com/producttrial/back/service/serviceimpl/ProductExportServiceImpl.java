@@ -0,0 +1,56 @@
+package com.producttrial.back.service.serviceimpl;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.ImportFormat;
+import com.producttrial.back.mapper.ProductCsvMapper;
+import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.service.IProductExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportServiceImpl implements IProductExportService {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(ImportFormat format, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        if (format == ImportFormat.CSV) {
+            writer.write(ProductCsvMapper.headerLine());
+            writer.write('\n');
+        }
+        try (Stream<ProductDTO> products = productRepository.streamAllDtos()) {
+            // Itérateur plutôt que forEach : l'écriture peut lever une IOException
+            for (Iterator<ProductDTO> it = products.iterator(); it.hasNext(); count++) {
+                ProductDTO product = it.next();
+                writer.write(format == ImportFormat.CSV ? ProductCsvMapper.toLine(product) : objectMapper.writeValueAsString(product));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        log.info("Exported {} products as {} in {} ms", count, format,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return count;
+    }
+}
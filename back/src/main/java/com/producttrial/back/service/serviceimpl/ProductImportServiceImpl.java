@@ -0,0 +1,230 @@
+package com.producttrial.back.service.serviceimpl;
+
+import com.producttrial.back.cache.ProductCache;
+import com.producttrial.back.dto.ImportErrorDTO;
+import com.producttrial.back.dto.ImportReportDTO;
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.ImportFormat;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.ProductImportFinishedEvent;
+import com.producttrial.back.event.ProductImportStartedEvent;
+import com.producttrial.back.io.CsvRecordReader;
+import com.producttrial.back.mapper.ProductCsvMapper;
+import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.service.IProductImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImpl implements IProductImportService {
+    // Au-delà, les erreurs sont comptées mais plus listées : le rapport reste de taille bornée
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private record PendingRow(long row, ProductDTO product) {
+    }
+
+    private record ChunkResult(Set<String> existingCodes, List<ProductDTO> saved) {
+    }
+
+    // État d'un import en cours : compteurs, erreurs et lignes valides en attente d'écriture
+    private static final class ImportRun {
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long rows;
+        private long created;
+        private long updated;
+        private long failed;
+
+        private void reject(long row, String code, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ImportErrorDTO.builder().row(row).code(code).message(message).build());
+            }
+        }
+    }
+
+    @Override
+    public ImportReportDTO importProducts(InputStream input, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        // Bornes de l'import : l'autocomplétion n'est reconstruite qu'une fois à la fin, pas à chaque lot
+        eventPublisher.publishEvent(new ProductImportStartedEvent());
+        try {
+            if (format == ImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readJsonLines(reader, run);
+            }
+            flush(run);
+        } finally {
+            eventPublisher.publishEvent(new ProductImportFinishedEvent());
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Imported products from {}: {} rows, {} created, {} updated, {} failed in {} ms",
+                format, run.rows, run.created, run.updated, run.failed, durationMillis);
+        return ImportReportDTO.builder()
+                .rows(run.rows)
+                .created(run.created)
+                .updated(run.updated)
+                .failed(run.failed)
+                .errors(run.errors)
+                .errorsTruncated(run.failed > run.errors.size())
+                .durationMillis(durationMillis)
+                .build();
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns;
+        try {
+            columns = ProductCsvMapper.columnIndexes(header);
+        } catch (IllegalArgumentException e) {
+            run.reject(0, null, e.getMessage());
+            return;
+        }
+        for (List<String> record = csv.next(); record != null; record = csv.next()) {
+            long row = ++run.rows;
+            ProductDTO product;
+            try {
+                product = ProductCsvMapper.fromRecord(columns, record);
+            } catch (IllegalArgumentException e) {
+                run.reject(row, null, e.getMessage());
+                continue;
+            }
+            accept(run, row, product);
+        }
+    }
+
+    private void readJsonLines(BufferedReader reader, ImportRun run) throws IOException {
+        long line = 0;
+        for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            run.rows++;
+            ProductDTO product;
+            try {
+                product = objectMapper.readValue(text, ProductDTO.class);
+            } catch (JacksonException e) {
+                run.reject(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            accept(run, line, product);
+        }
+    }
+
+    private void accept(ImportRun run, long row, ProductDTO product) {
+        product.setId(null);
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            run.reject(row, product.getCode(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+        run.pending.add(new PendingRow(row, product));
+        if (run.pending.size() >= chunkSize) {
+            flush(run);
+        }
+    }
+
+    // Écrit les lignes en attente dans une transaction dédiée, puis invalide le cache et publie les événements
+    private void flush(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<PendingRow> chunk = List.copyOf(run.pending);
+        run.pending.clear();
+        write(run, chunk);
+    }
+
+    // Un lot refusé par la base est coupé en deux et réessayé : seules les lignes fautives sont rejetées
+    private void write(ImportRun run, List<PendingRow> chunk) {
+        // Un code présent plusieurs fois dans le lot : la dernière ligne l'emporte
+        Map<String, ProductDTO> byCode = new LinkedHashMap<>();
+        for (PendingRow pending : chunk) {
+            byCode.put(pending.product().getCode(), pending.product());
+        }
+
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                Set<String> existingCodes = new HashSet<>(productRepository.findExistingCodes(byCode.keySet()));
+                productRepository.upsertByCode(List.copyOf(byCode.values()), System.currentTimeMillis());
+                return new ChunkResult(existingCodes, productRepository.findDtosByCodeIn(byCode.keySet()));
+            });
+        } catch (DataAccessException e) {
+            if (chunk.size() > 1) {
+                log.debug("Import chunk of {} rows rejected, retrying in halves: {}", chunk.size(),
+                        e.getMostSpecificCause().getMessage());
+                int half = chunk.size() / 2;
+                write(run, chunk.subList(0, half));
+                write(run, chunk.subList(half, chunk.size()));
+                return;
+            }
+            PendingRow pending = chunk.getFirst();
+            log.warn("Import row {} rejected: {}", pending.row(), e.getMostSpecificCause().getMessage());
+            run.reject(pending.row(), pending.product().getCode(),
+                    "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+            return;
+        }
+
+        Set<String> seen = new HashSet<>(result.existingCodes());
+        for (PendingRow pending : chunk) {
+            if (seen.add(pending.product().getCode())) {
+                run.created++;
+            } else {
+                run.updated++;
+            }
+        }
+        productCache.evictProducts(result.saved().stream().map(ProductDTO::getId).toList());
+        for (ProductDTO saved : result.saved()) {
+            eventPublisher.publishEvent(result.existingCodes().contains(saved.getCode())
+                    ? ProductChangedEvent.updated(saved)
+                    : ProductChangedEvent.created(saved));
+        }
+    }
+}
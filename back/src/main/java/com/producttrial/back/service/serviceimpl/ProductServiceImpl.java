@@ -1,25 +1,75 @@
 package com.producttrial.back.service.serviceimpl;
 
+import com.producttrial.back.cache.ProductCache;
+import com.producttrial.back.cache.ProductCountEstimate;
+import com.producttrial.back.dto.CursorPageDTO;
+import com.producttrial.back.dto.ListingPageDTO;
+import com.producttrial.back.dto.ProductFilterDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
 import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
 import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.CountMode;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.exception.InvalidFacetRequestException;
 import com.producttrial.back.exception.ProductNotFoundException;
+import com.producttrial.back.mapper.CursorMapper;
+import com.producttrial.back.mapper.ProductFacetsMapper;
 import com.producttrial.back.mapper.ProductMapper;
 import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.repository.ProductRepositoryCustom.FacetCounts;
+import com.producttrial.back.repository.ProductSpecifications;
+import com.producttrial.back.search.ProductSearchIndex;
+import com.producttrial.back.search.ProductSuggestIndex;
 import com.producttrial.back.service.IProductService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements IProductService {
+    // Propriétés utilisables comme clef de tri en pagination par curseur (colonnes non nulles uniquement)
+    private static final Map<String, Class<?>> SCROLL_SORTABLE = Map.of(
+            "id", Long.class,
+            "code", String.class,
+            "name", String.class,
+            "price", Double.class,
+            "createdAt", Long.class,
+            "updatedAt", Long.class);
+
+    // Les notes vont de 0 à 5 : une tranche par point
+    private static final double RATING_BUCKET_WIDTH = 1.0;
+    // Nombre max de tranches de l'histogramme des prix : au-delà, la largeur demandée est refusée (400)
+    private static final long MAX_PRICE_BUCKETS = 1000;
+    // Conversion entités -> DTO d'une page, mesurée à part des requêtes SQL
+    private static final String MAPPING_TIMER = "mapping.dto";
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductCountEstimate productCountEstimate;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
     // Méthodes de Product
     @Override
@@ -34,6 +84,14 @@ public class ProductServiceImpl implements IProductService {
         return productRepository.findById(id);
     }
 
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(productRepository.findExistingIds(ids));
+    }
+
     @Override
     public Product save(Product product) {
         try {
@@ -41,6 +99,8 @@ public class ProductServiceImpl implements IProductService {
             product.setCreatedAt(now);
             product.setUpdatedAt(now);
             Product saved = productRepository.save(product);
+            productCache.evictProduct(saved.getId());
+            eventPublisher.publishEvent(ProductChangedEvent.created(ProductMapper.toDto(saved)));
             log.info("Saved product with id {}", saved.getId());
             return saved;
         } catch (Exception e) {
@@ -66,6 +126,8 @@ public class ProductServiceImpl implements IProductService {
                     p.setRating(product.getRating());
                     p.setUpdatedAt(System.currentTimeMillis());
                     Product saved = productRepository.save(p);
+                    productCache.evictProduct(id);
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(ProductMapper.toDto(saved)));
                     log.info("Updated product with id {}", p.getId());
                     return saved;
                 })
@@ -83,6 +145,8 @@ public class ProductServiceImpl implements IProductService {
                 throw new ProductNotFoundException(id);
             }
             productRepository.deleteById(id);
+            productCache.evictProduct(id);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
             log.info("Deleted product id={}", id);
         } catch (Exception ex) {
             log.error("Error deleting product id={}", id, ex);
@@ -93,6 +157,8 @@ public class ProductServiceImpl implements IProductService {
     @Override
     public void deleteAll() {
         productRepository.deleteAll();
+        productCache.invalidateAll();
+        eventPublisher.publishEvent(ProductChangedEvent.allDeleted());
         log.info("Deleted all products");
     }
 
@@ -100,11 +166,125 @@ public class ProductServiceImpl implements IProductService {
 
     @Override
     public Page<ProductDTO> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable).map(ProductMapper::toDto);
+        return productCache.getPage(pageable, p -> productRepository.findDtoPage(ProductSpecifications.fromFilter(null), p));
     }
 
+    @Override
+    public Page<ProductDTO> getAllProducts(ProductFilterDTO filter, Pageable pageable) {
+        if (filter == null || !filter.hasCriteria()) {
+            return getAllProducts(pageable);
+        }
+        // Les pages filtrées ne sont pas mises en cache : trop de combinaisons possibles
+        log.debug("Fetching filtered products {}", filter);
+        return productRepository.findDtoPage(ProductSpecifications.fromFilter(filter), pageable);
+    }
+
+    @Override
+    public ListingPageDTO<ProductDTO> getProductListing(Pageable pageable, CountMode countMode, ProductFilterDTO filter) {
+        boolean filtered = filter != null && filter.hasCriteria();
+        if (countMode == CountMode.EXACT) {
+            Page<ProductDTO> page = getAllProducts(filter, pageable);
+            return ListingPageDTO.<ProductDTO>builder()
+                    .content(page.getContent())
+                    .page(page.getNumber())
+                    .size(page.getSize())
+                    .hasNext(page.hasNext())
+                    .totalElements(page.getTotalElements())
+                    .totalExact(true)
+                    .build();
+        }
+
+        Slice<ProductDTO> slice = productRepository.findDtoSlice(ProductSpecifications.fromFilter(filter), pageable);
+        Long total = null;
+        boolean exact = false;
+        // Une page vide au-delà de la première ne dit rien du total : seulement qu'il est inférieur à l'offset
+        boolean lastPage = !slice.hasNext() && (slice.hasContent() || pageable.getPageNumber() == 0);
+        // count=NONE : pas de total, même sur la dernière page (contrat de ListingPageDTO)
+        if (countMode != CountMode.NONE && lastPage) {
+            // Dernière page : le total se déduit de la page elle-même
+            total = pageable.getOffset() + slice.getNumberOfElements();
+            exact = true;
+        } else if (countMode == CountMode.ESTIMATE && !filtered) {
+            // L'estimation porte sur tout le catalogue : elle n'a pas de sens pour une liste filtrée
+            // Tant qu'on n'a pas dépassé la fin, elle ne peut pas être inférieure à ce qu'on sait déjà exister
+            long known = slice.hasContent() ? pageable.getOffset() + slice.getNumberOfElements() + 1 : 0;
+            total = Math.max(productCountEstimate.get(), known);
+        }
+        return ListingPageDTO.<ProductDTO>builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .totalElements(total)
+                .totalExact(exact)
+                .build();
+    }
+
+    // Pas de @Transactional sur les lectures servies par ProductCache : un accès en cache ne doit pas prendre de
+    // connexion. Les chargements passent par le repository, qui ouvre sa propre transaction en lecture seule
     @Override
     public Optional<ProductDTO> getProductById(Long id) {
-        return productRepository.findById(id).map(ProductMapper::toDto);
+        return productCache.getProduct(id, key -> productRepository.findById(key).map(ProductMapper::toDto));
+    }
+
+    @Override
+    public Optional<Long> getProductVersion(Long id) {
+        return productCache.getProductVersion(id, productRepository::findUpdatedAtById);
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return productCache.getCatalogVersion(productRepository::findCatalogVersion);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> scrollProducts(String cursor, String sort, Sort.Direction direction, int size) {
+        CursorMapper.Cursor decoded = CursorMapper.decode(cursor, sort, direction, SCROLL_SORTABLE);
+        Window<Product> window = productRepository.findAllBy(decoded.position(), decoded.sort(), Limit.of(size));
+        return meterRegistry.timer(MAPPING_TIMER, "type", "product")
+                .record(() -> CursorMapper.toPage(window, ProductMapper::toDto, decoded));
+    }
+
+    @Override
+    public List<ProductSearchHitDTO> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, limit);
+    }
+
+    @Override
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        return productSuggestIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public ProductFacetsDTO getFacets(ProductFilterDTO filter, double priceBucketWidth) {
+        if (filter == null || !filter.hasCriteria()) {
+            return productCache.getFacets(priceBucketWidth, width -> computeFacets(null, width));
+        }
+        return computeFacets(filter, priceBucketWidth);
+    }
+
+    private ProductFacetsDTO computeFacets(ProductFilterDTO filter, double priceBucketWidth) {
+        log.debug("Computing product facets filter={} priceBucketWidth={}", filter, priceBucketWidth);
+        FacetCounts counts = productRepository.countFacets(ProductSpecifications.fromFilter(filter), priceBucketWidth,
+                RATING_BUCKET_WIDTH, MAX_PRICE_BUCKETS);
+        checkPriceBucketCount(counts, priceBucketWidth);
+        return meterRegistry.timer(MAPPING_TIMER, "type", "product-facets")
+                .record(() -> ProductFacetsMapper.toDto(counts, priceBucketWidth, RATING_BUCKET_WIDTH));
+    }
+
+    // Le nombre de tranches dépend de l'étendue des prix, pas du nombre de produits :
+    // au-delà de la limite, la requête n'a renvoyé aucune tranche de prix et la demande est refusée
+    private void checkPriceBucketCount(FacetCounts counts, double priceBucketWidth) {
+        if (counts.minPrice() == null || counts.maxPrice() == null) {
+            return;
+        }
+        double min = counts.minPrice();
+        double max = counts.maxPrice();
+        double buckets = Math.floor(max / priceBucketWidth) - Math.floor(min / priceBucketWidth) + 1;
+        if (buckets > MAX_PRICE_BUCKETS) {
+            throw new InvalidFacetRequestException("Price bucket " + priceBucketWidth + " would produce more than "
+                    + MAX_PRICE_BUCKETS + " buckets for prices from " + min + " to " + max);
+        }
     }
 }
@@ -3,21 +3,24 @@ package com.producttrial.back.service.serviceimpl;
 import com.producttrial.back.entity.User;
 import com.producttrial.back.exception.UserNotFoundException;
 import com.producttrial.back.repository.UserRepository;
+import com.producttrial.back.service.IPasswordHashingService;
 import com.producttrial.back.service.IUserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements IUserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final IPasswordHashingService passwordHashingService;
+    // Exécuteur de @Async (threads virtuels) : résolu par le nom du paramètre
+    private final Executor applicationTaskExecutor;
 
     @Override
     public List<User> findAll() {
@@ -40,7 +43,7 @@ public class UserServiceImpl implements IUserService {
     @Override
     public User save(User user) {
         try {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHashingService.hash(user.getPassword()));
             User saved = userRepository.save(user);
             log.info("Saved user with id {}", saved.getId());
             return saved;
@@ -50,6 +53,24 @@ public class UserServiceImpl implements IUserService {
         }
     }
 
+    @Override
+    public void rehashPassword(User user, String rawPassword) {
+        Long id = user.getId();
+        String oldPassword = user.getPassword();
+        passwordHashingService.hashAsync(rawPassword)
+                // La mise à jour JDBC ne doit pas occuper un thread du pool BCrypt, de taille fixe
+                .thenAcceptAsync(newPassword -> {
+                    if (userRepository.updatePasswordIfUnchanged(id, oldPassword, newPassword) == 1) {
+                        log.info("Rehashed password of user id={}", id);
+                    }
+                }, applicationTaskExecutor)
+                .exceptionally(e -> {
+                    // Sans gravité : nouvelle tentative à la prochaine connexion
+                    log.warn("Could not rehash password of user id={}: {}", id, e.getMessage());
+                    return null;
+                });
+    }
+
     //A adpater => peut etre faire un update sans le mdp et un avec que le mdp pour changer mdp
     @Override
     public User update(Long id, User user) {
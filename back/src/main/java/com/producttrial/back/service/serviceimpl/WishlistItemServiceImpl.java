@@ -1,33 +1,57 @@
 package com.producttrial.back.service.serviceimpl;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
 import com.producttrial.back.dto.WishlistItemDTO;
+import com.producttrial.back.dto.CursorPageDTO;
 import com.producttrial.back.entity.Product;
 import com.producttrial.back.entity.User;
 import com.producttrial.back.entity.WishlistItem;
+import com.producttrial.back.enums.BatchItemStatus;
 import com.producttrial.back.exception.ProductNotFoundException;
 import com.producttrial.back.exception.UserNotFoundException;
 import com.producttrial.back.exception.WishlistItemNotFoundException;
+import com.producttrial.back.mapper.BatchResultMapper;
 import com.producttrial.back.mapper.WishlistItemMapper;
+import com.producttrial.back.mapper.CursorMapper;
 import com.producttrial.back.repository.WishlistItemRepository;
 import com.producttrial.back.service.IProductService;
 import com.producttrial.back.service.IUserService;
 import com.producttrial.back.service.IWishlistItemService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WishlistItemServiceImpl implements IWishlistItemService {
+    private static final Map<String, Class<?>> SCROLL_SORTABLE = Map.of(
+            "id", Long.class,
+            "createdAt", Long.class,
+            "updatedAt", Long.class);
+    // Conversion entités -> DTO d'une page, mesurée à part des requêtes SQL
+    private static final String MAPPING_TIMER = "mapping.dto";
+
     private final WishlistItemRepository wishlistItemRepository;
     private final IUserService userService;
     private final IProductService productService;
+    private final MeterRegistry meterRegistry;
 
     // Méthode de wishlistItem
 
@@ -87,15 +111,84 @@ public class WishlistItemServiceImpl implements IWishlistItemService {
         log.info("Deleted all wishlist items");
     }
 
+    @Override
+    @Transactional
+    public List<BatchItemResultDTO> saveBatch(List<WishlistItemDTO> dtos, Long userId) {
+        if (userService.findById(userId).isEmpty()) {
+            log.warn("User not found for wishlist batch id={}", userId);
+            throw new UserNotFoundException(userId);
+        }
+        Set<Long> requested = new LinkedHashSet<>();
+        for (WishlistItemDTO dto : dtos) {
+            requested.add(dto.getProductId());
+        }
+        Set<Long> existingProducts = productService.findExistingIds(requested);
+        Map<Long, WishlistItem> present = new HashMap<>();
+        for (WishlistItem line : wishlistItemRepository.findByUserIdAndProductIdIn(userId, requested)) {
+            present.put(line.getProduct().getId(), line);
+        }
+
+        List<Long> toAdd = new ArrayList<>();
+        for (Long productId : requested) {
+            if (existingProducts.contains(productId) && !present.containsKey(productId)) {
+                toAdd.add(productId);
+            }
+        }
+        Map<Long, WishlistItem> added = new HashMap<>();
+        if (!toAdd.isEmpty()) {
+            for (WishlistItem line : wishlistItemRepository.addAll(userId, toAdd, System.currentTimeMillis())) {
+                added.put(line.getProduct().getId(), line);
+            }
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            Long productId = dtos.get(i).getProductId();
+            BatchItemResultDTO.BatchItemResultDTOBuilder result = BatchItemResultDTO.builder().index(i).productId(productId);
+            if (added.containsKey(productId)) {
+                result.id(added.get(productId).getId()).status(BatchItemStatus.CREATED);
+            } else if (present.containsKey(productId)) {
+                result.id(present.get(productId).getId()).status(BatchItemStatus.ALREADY_EXISTS).message("Product already in wishlist");
+            } else {
+                result.status(BatchItemStatus.NOT_FOUND).message(new ProductNotFoundException(productId).getMessage());
+            }
+            results.add(result.build());
+        }
+        log.info("Added {} products to the wishlist of user id={} ({} requested items)", added.size(), userId, dtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResultDTO> deleteBatch(List<Long> ids, Long userId) {
+        Set<Long> owned = new HashSet<>(wishlistItemRepository.findIdsByUserIdAndIdIn(userId, ids));
+        if (!owned.isEmpty()) {
+            wishlistItemRepository.deleteByUserIdAndIdIn(userId, owned);
+        }
+        log.info("Deleted {} wishlist items of user id={} ({} requested ids)", owned.size(), userId, ids.size());
+        return BatchResultMapper.toDeletionResults(ids, owned, id -> new WishlistItemNotFoundException(id).getMessage());
+    }
+
     // Méthode de wishlistItemDTO
 
     @Override
+    @Transactional(readOnly = true)
     public Page<WishlistItemDTO> getWishlist(Pageable pageable, Long userId) {
-        return wishlistItemRepository.findByUserId(pageable, userId).map(WishlistItemMapper::toDto);
+        return wishlistItemRepository.findDtosByUserId(userId, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<WishlistItemDTO> getWishlistItemById(Long id, Long userId) {
-        return wishlistItemRepository.findByIdAndUserId(id, userId).map(WishlistItemMapper::toDto);
+        return wishlistItemRepository.findDtoByIdAndUserId(id, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<WishlistItemDTO> scrollWishlist(String cursor, String sort, Sort.Direction direction, int size, Long userId) {
+        CursorMapper.Cursor decoded = CursorMapper.decode(cursor, sort, direction, SCROLL_SORTABLE);
+        Window<WishlistItem> window = wishlistItemRepository.findByUserId(userId, decoded.position(), decoded.sort(), Limit.of(size));
+        return meterRegistry.timer(MAPPING_TIMER, "type", "wishlist-item")
+                .record(() -> CursorMapper.toPage(window, WishlistItemMapper::toDto, decoded));
     }
 }
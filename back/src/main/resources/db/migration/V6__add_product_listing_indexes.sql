@@ -0,0 +1,6 @@
+-- Index pour les filtres et tris du listing produits (GET /products, GET /products/scroll)
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON public.products (category, price);
+CREATE INDEX IF NOT EXISTS idx_products_inventory_status_price ON public.products (inventory_status, price);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON public.products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON public.products ("name", id);
+CREATE INDEX IF NOT EXISTS idx_products_rating ON public.products (rating);
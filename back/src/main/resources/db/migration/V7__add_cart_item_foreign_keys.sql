@@ -0,0 +1,13 @@
+-- Clefs étrangères du panier : l'ajout au panier (INSERT ... ON CONFLICT) s'appuie dessus
+-- pour détecter un produit ou un utilisateur inexistant sans le relire avant
+DELETE FROM public.cart_item c
+WHERE NOT EXISTS (SELECT 1 FROM public.users u WHERE u.id = c.user_id)
+   OR NOT EXISTS (SELECT 1 FROM public.products p WHERE p.id = c.product_id);
+
+ALTER TABLE public.cart_item
+    ADD CONSTRAINT fk_cart_item_user FOREIGN KEY (user_id) REFERENCES public.users (id) ON DELETE CASCADE;
+ALTER TABLE public.cart_item
+    ADD CONSTRAINT fk_cart_item_product FOREIGN KEY (product_id) REFERENCES public.products (id) ON DELETE CASCADE;
+
+-- uc_cart_user_product couvre déjà user_id ; product_id sert à la suppression en cascade d'un produit
+CREATE INDEX IF NOT EXISTS idx_cart_item_product ON public.cart_item (product_id);
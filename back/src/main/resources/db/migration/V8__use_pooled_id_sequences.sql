@@ -0,0 +1,28 @@
+-- Passage des colonnes IDENTITY à des séquences incrémentées de 50, lues par blocs par Hibernate (pooled-lo).
+-- Chaque séquence repart après le plus grand id existant : les ids déjà attribués ne changent pas.
+-- La valeur par défaut de la colonne utilise la même séquence, pour les insertions SQL sans id :
+-- chaque nextval y réserve un bloc entier de 50 ids pour une seule ligne, sans chevauchement avec Hibernate.
+
+CREATE SEQUENCE IF NOT EXISTS public.users_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+SELECT setval('public.users_seq', COALESCE((SELECT MAX(id) FROM public.users), 0) + 1, false);
+ALTER TABLE public.users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.users ALTER COLUMN id SET DEFAULT nextval('public.users_seq');
+ALTER SEQUENCE public.users_seq OWNED BY public.users.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.products_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+SELECT setval('public.products_seq', COALESCE((SELECT MAX(id) FROM public.products), 0) + 1, false);
+ALTER TABLE public.products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.products ALTER COLUMN id SET DEFAULT nextval('public.products_seq');
+ALTER SEQUENCE public.products_seq OWNED BY public.products.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.cart_item_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+SELECT setval('public.cart_item_seq', COALESCE((SELECT MAX(id) FROM public.cart_item), 0) + 1, false);
+ALTER TABLE public.cart_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.cart_item ALTER COLUMN id SET DEFAULT nextval('public.cart_item_seq');
+ALTER SEQUENCE public.cart_item_seq OWNED BY public.cart_item.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.wishlist_item_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+SELECT setval('public.wishlist_item_seq', COALESCE((SELECT MAX(id) FROM public.wishlist_item), 0) + 1, false);
+ALTER TABLE public.wishlist_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.wishlist_item ALTER COLUMN id SET DEFAULT nextval('public.wishlist_item_seq');
+ALTER SEQUENCE public.wishlist_item_seq OWNED BY public.wishlist_item.id;
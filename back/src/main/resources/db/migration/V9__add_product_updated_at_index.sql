@@ -0,0 +1,2 @@
+-- max(updated_at) calculé pour la version du catalogue (ETag du listing) : lu sur l'index plutôt que par un parcours de table
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON public.products (updated_at);
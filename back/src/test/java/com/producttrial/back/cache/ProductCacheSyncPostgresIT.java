@@ -0,0 +1,108 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Deux nœuds reliés par LISTEN/NOTIFY sur un vrai PostgreSQL (ignoré sans Docker)
+@Testcontainers(disabledWithoutDocker = true)
+class ProductCacheSyncPostgresIT {
+    private static final String CHANNEL = "product_cache";
+    private static final int MAX_IDS_PER_BATCH = 3;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15");
+
+    private final ProductCache senderCache = mock(ProductCache.class);
+    private final ProductCache receiverCache = mock(ProductCache.class);
+    private final ApplicationEventPublisher senderPublisher = mock(ApplicationEventPublisher.class);
+    private final ApplicationEventPublisher receiverPublisher = mock(ApplicationEventPublisher.class);
+    private final ProductCacheSync sender = node(senderCache, senderPublisher);
+    private final ProductCacheSync receiver = node(receiverCache, receiverPublisher);
+
+    private static ProductCacheSync node(ProductCache productCache, ApplicationEventPublisher eventPublisher) {
+        return new ProductCacheSync(productCache, eventPublisher, POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword(), CHANNEL, Duration.ofMillis(50), MAX_IDS_PER_BATCH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.stop();
+        receiver.stop();
+    }
+
+    // Le cache est vidé juste après LISTEN : le nœud reçoit alors les notifications
+    private static void startListening(ProductCacheSync node, ProductCache productCache) {
+        node.start();
+        verify(productCache, timeout(TIMEOUT_MILLIS)).invalidateAll();
+        clearInvocations(productCache);
+    }
+
+    @Test
+    void notify_fromOneNode_evictsIdsOnTheOther() {
+        startListening(receiver, receiverCache);
+        // Mis en file avant le démarrage : envoyés ensemble dès la connexion
+        sender.onProductChanged(ProductChangedEvent.deleted(1L));
+        sender.onProductChanged(ProductChangedEvent.deleted(2L));
+        sender.start();
+
+        verify(receiverCache, timeout(TIMEOUT_MILLIS)).evictProducts(Set.of(1L, 2L));
+        verify(receiverPublisher, timeout(TIMEOUT_MILLIS)).publishEvent(RemoteProductsChangedEvent.of(Set.of(1L, 2L)));
+        verify(receiverCache, never()).invalidateAll();
+    }
+
+    @Test
+    void notify_fromItself_isIgnored() {
+        startListening(receiver, receiverCache);
+        sender.onProductChanged(ProductChangedEvent.deleted(1L));
+        sender.start();
+
+        verify(receiverCache, timeout(TIMEOUT_MILLIS)).evictProducts(Set.of(1L));
+        // Le nœud émetteur écoute le même canal mais ne traite pas sa propre notification
+        verify(senderCache, after(500).never()).evictProducts(any());
+        verify(senderPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void burstOverBatchLimit_flushesWholeCacheOnTheOther() {
+        startListening(receiver, receiverCache);
+        for (long id = 1; id <= MAX_IDS_PER_BATCH + 2; id++) {
+            sender.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+        sender.start();
+
+        verify(receiverCache, timeout(TIMEOUT_MILLIS)).invalidateAll();
+        verify(receiverPublisher, timeout(TIMEOUT_MILLIS)).publishEvent(RemoteProductsChangedEvent.all());
+        verify(receiverCache, never()).evictProducts(any());
+    }
+
+    @Test
+    void reconnection_flushesCacheAndReloadsIndexes() throws Exception {
+        startListening(receiver, receiverCache);
+        verify(receiverPublisher, never()).publishEvent(any());
+
+        // Coupe la connexion d'écoute : des notifications ont pu être perdues
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN " + CHANNEL + "'");
+        }
+
+        verify(receiverCache, timeout(TIMEOUT_MILLIS).atLeastOnce()).invalidateAll();
+        verify(receiverPublisher, timeout(TIMEOUT_MILLIS)).publishEvent(RemoteProductsChangedEvent.all());
+    }
+}
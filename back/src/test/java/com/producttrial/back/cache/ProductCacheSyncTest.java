@@ -0,0 +1,90 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductCacheSyncTest {
+    private final ProductCache productCache = mock(ProductCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ProductCacheSync sync = new ProductCacheSync(productCache, eventPublisher,
+            "jdbc:h2:mem:sync", "", "", "product_cache", Duration.ofMillis(200), 3);
+
+    @Test
+    void constructor_invalidChannel_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductCacheSync(productCache, eventPublisher,
+                "jdbc:h2:mem:sync", "", "", "product-cache; drop table products", Duration.ofMillis(200), 3));
+    }
+
+    @Test
+    void buildPayloads_fewIds_sendsOnePayload() {
+        assertEquals(List.of(sync.nodeId() + ":1,2,3"), sync.buildPayloads(List.of("1", "2", "3")));
+    }
+
+    @Test
+    void buildPayloads_manyIds_splitsUnderNotifyLimit() {
+        List<String> ids = IntStream.range(1_000_000, 1_002_000).mapToObj(String::valueOf).toList();
+
+        List<String> payloads = sync.buildPayloads(ids);
+
+        assertTrue(payloads.size() > 1, "ids should not fit in a single payload");
+        List<String> sent = new ArrayList<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= 7500, "payload should stay under the NOTIFY limit");
+            assertTrue(payload.startsWith(sync.nodeId() + ":"), "every payload should carry the node id");
+            sent.addAll(Arrays.asList(payload.substring(payload.indexOf(':') + 1).split(",")));
+        }
+        assertEquals(ids, sent, "every id should be sent once, in order");
+    }
+
+    @Test
+    void applyRemote_otherNode_evictsIdsOfAllPayloads() {
+        sync.applyRemote(List.of("other:1,2", "other:3"));
+
+        verify(productCache).evictProducts(Set.of(1L, 2L, 3L));
+        verify(eventPublisher).publishEvent(RemoteProductsChangedEvent.of(Set.of(1L, 2L, 3L)));
+        verify(productCache, never()).invalidateAll();
+    }
+
+    @Test
+    void applyRemote_ownPayload_isIgnored() {
+        sync.applyRemote(List.of(sync.nodeId() + ":1,2", sync.nodeId() + ":*"));
+
+        verifyNoInteractions(productCache, eventPublisher);
+    }
+
+    @Test
+    void applyRemote_flushAll_invalidatesWholeCache() {
+        sync.applyRemote(List.of("other:1", "other:*"));
+
+        verify(productCache).invalidateAll();
+        verify(productCache, never()).evictProducts(any());
+        verify(eventPublisher).publishEvent(RemoteProductsChangedEvent.all());
+    }
+
+    @Test
+    void applyRemote_moreIdsThanBatchLimit_invalidatesWholeCache() {
+        sync.applyRemote(List.of("other:1,2", "another:3,4"));
+
+        verify(productCache).invalidateAll();
+        verify(eventPublisher).publishEvent(RemoteProductsChangedEvent.all());
+    }
+
+    @Test
+    void applyRemote_malformedPayload_skipsInvalidParts() {
+        sync.applyRemote(List.of("no separator", "other:1,abc,"));
+
+        verify(productCache).evictProducts(Set.of(1L));
+    }
+}
@@ -0,0 +1,159 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+    private ProductCache productCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(100, 10, Duration.ofMinutes(1), 2);
+        loads = new AtomicInteger();
+    }
+
+    private Optional<ProductDTO> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(ProductDTO.builder().id(id).code("C" + id).name("P" + id).price(1.0D).build());
+    }
+
+    private Page<ProductDTO> loadPage(Pageable pageable) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, 1);
+    }
+
+    @Test
+    void getProduct_secondCall_isServedFromCache() {
+        productCache.getProduct(1L, this::load);
+        Optional<ProductDTO> result = productCache.getProduct(1L, this::load);
+
+        assertTrue(result.isPresent(), "result should be present");
+        assertEquals(1, loads.get(), "product should be loaded once");
+        assertEquals(1, productCache.productStats().hitCount(), "one hit should be recorded");
+        assertEquals(1, productCache.productStats().missCount(), "one miss should be recorded");
+    }
+
+    @Test
+    void getProduct_missingProduct_isNotCached() {
+        productCache.getProduct(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        productCache.getProduct(1L, this::load);
+
+        assertEquals(2, loads.get(), "missing product should not be cached");
+    }
+
+    @Test
+    void evictProduct_removesProductAndPages() {
+        Pageable pageable = PageRequest.of(0, 10);
+        productCache.getProduct(1L, this::load);
+        productCache.getPage(pageable, this::loadPage);
+
+        productCache.evictProduct(1L);
+        productCache.getProduct(1L, this::load);
+        productCache.getPage(pageable, this::loadPage);
+
+        assertEquals(4, loads.get(), "product and page should be reloaded after eviction");
+    }
+
+    @Test
+    void getPage_deepPage_isNotCached() {
+        Pageable deep = PageRequest.of(5, 10);
+        productCache.getPage(deep, this::loadPage);
+        productCache.getPage(deep, this::loadPage);
+
+        assertEquals(2, loads.get(), "pages beyond max-cached-page should always be loaded");
+    }
+
+    @Test
+    void getProduct_invalidatedDuringLoad_isNotCached() {
+        productCache.getProduct(1L, id -> {
+            productCache.invalidateAll();
+            return load(id);
+        });
+        productCache.getProduct(1L, this::load);
+
+        assertEquals(2, loads.get(), "value loaded before an invalidation should not be kept");
+    }
+
+    @Test
+    void getFacets_isEvictedOnProductChange() {
+        productCache.getFacets(10.0, width -> {
+            loads.incrementAndGet();
+            return ProductFacetsDTO.builder().totalElements(1).build();
+        });
+        productCache.getFacets(10.0, width -> {
+            loads.incrementAndGet();
+            return ProductFacetsDTO.builder().totalElements(1).build();
+        });
+        assertEquals(1, loads.get(), "second call should be served from cache");
+
+        productCache.evictProduct(1L);
+        productCache.getFacets(10.0, width -> {
+            loads.incrementAndGet();
+            return ProductFacetsDTO.builder().totalElements(2).build();
+        });
+        assertEquals(2, loads.get(), "facets should be reloaded after a product change");
+    }
+
+    @Test
+    void getProductVersion_isEvictedWithProduct() {
+        productCache.getProductVersion(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(100L);
+        });
+        Optional<Long> cached = productCache.getProductVersion(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(100L);
+        });
+        assertEquals(Optional.of(100L), cached);
+        assertEquals(1, loads.get(), "second call should be served from cache");
+
+        productCache.evictProducts(List.of(1L));
+        Optional<Long> reloaded = productCache.getProductVersion(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(200L);
+        });
+        assertEquals(Optional.of(200L), reloaded);
+        assertEquals(2, loads.get(), "version should be reloaded after a product change");
+    }
+
+    @Test
+    void getCatalogVersion_isRecomputedAfterAnyProductChange() {
+        assertEquals("2-100", productCache.getCatalogVersion(() -> {
+            loads.incrementAndGet();
+            return "2-100";
+        }));
+        assertEquals("2-100", productCache.getCatalogVersion(() -> "unused"));
+        assertEquals(1, loads.get(), "second call should be served from cache");
+
+        productCache.evictProduct(7L);
+        assertEquals("3-200", productCache.getCatalogVersion(() -> "3-200"));
+    }
+
+    @Test
+    void getCatalogVersion_invalidatedDuringLoad_isNotKept() {
+        productCache.getCatalogVersion(() -> {
+            productCache.invalidateAll();
+            return "2-100";
+        });
+
+        assertEquals("2-200", productCache.getCatalogVersion(() -> "2-200"),
+                "version computed before an invalidation should not be kept");
+    }
+}
@@ -0,0 +1,77 @@
+package com.producttrial.back.cache;
+
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCountEstimateTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    // Exécuteur manuel : les recomptes en arrière-plan ne s'exécutent qu'à la demande du test
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private ProductCountEstimate estimate(Duration ttl) {
+        return new ProductCountEstimate(productRepository, tasks::add, ttl);
+    }
+
+    @Test
+    void get_firstCall_countsSynchronously() {
+        when(productRepository.count()).thenReturn(42L);
+
+        assertEquals(42L, estimate(Duration.ofMinutes(5)).get());
+        assertTrue(tasks.isEmpty(), "first count should not be deferred");
+    }
+
+    @Test
+    void get_staleValue_recountsOnTheGivenExecutor() {
+        when(productRepository.count()).thenReturn(42L, 50L);
+        ProductCountEstimate estimate = estimate(Duration.ZERO);
+        estimate.get();
+
+        sleepPastTtl();
+        assertEquals(42L, estimate.get(), "stale value should be returned without waiting");
+        assertEquals(1, tasks.size(), "recount should be submitted to the executor");
+        verify(productRepository, times(1)).count();
+
+        tasks.removeFirst().run();
+        assertEquals(50L, estimate.get());
+    }
+
+    @Test
+    void get_recountInProgress_submitsNoOtherRecount() {
+        when(productRepository.count()).thenReturn(42L);
+        ProductCountEstimate estimate = estimate(Duration.ZERO);
+        estimate.get();
+
+        sleepPastTtl();
+        estimate.get();
+        estimate.get();
+
+        assertEquals(1, tasks.size(), "only one recount should run at a time");
+    }
+
+    @Test
+    void onProductChanged_adjustsKnownEstimate() {
+        when(productRepository.count()).thenReturn(10L);
+        ProductCountEstimate estimate = estimate(Duration.ofMinutes(5));
+        estimate.get();
+
+        estimate.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        assertEquals(9L, estimate.get());
+    }
+
+    private static void sleepPastTtl() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
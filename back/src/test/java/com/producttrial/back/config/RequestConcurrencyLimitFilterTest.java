@@ -0,0 +1,96 @@
+package com.producttrial.back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestConcurrencyLimitFilterTest {
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/products");
+    }
+
+    @Test
+    void doFilter_belowLimit_passesRequestAndReleasesPermit() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request(), response, chain);
+
+        assertNotNull(chain.getRequest(), "request should reach the chain");
+        assertEquals(200, response.getStatus());
+        assertEquals(0, filter.inFlightRequests());
+    }
+
+    @Test
+    void doFilter_atLimit_rejectsWithServiceUnavailable() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        AtomicReference<Integer> inFlight = new AtomicReference<>();
+        // La seconde requête arrive pendant que la première occupe l'unique permis
+        FilterChain holdingChain = (req, res) -> {
+            inFlight.set(filter.inFlightRequests());
+            filter.doFilter(request(), rejected, new MockFilterChain());
+        };
+
+        filter.doFilter(request(), new MockHttpServletResponse(), holdingChain);
+
+        assertEquals(1, inFlight.get());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Too many concurrent requests"));
+        assertEquals(0, filter.inFlightRequests());
+    }
+
+    @Test
+    void doFilter_releasesPermit_whenChainFails() {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ZERO);
+        FilterChain failingChain = (req, res) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), failingChain));
+        assertEquals(0, filter.inFlightRequests());
+    }
+
+    @Test
+    void doFilter_withoutLimit_passesEveryRequest() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(0, Duration.ZERO);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void constructor_withoutExplicitLimit_derivesItFromPoolSize() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(10);
+
+            RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(dataSource, -1, 4, Duration.ZERO);
+
+            assertEquals(40, filter.maxRequests(), "limit should be pool size times requests per connection");
+        }
+    }
+
+    @Test
+    void constructor_withExplicitLimit_keepsIt() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(10);
+
+            RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(dataSource, 25, 4, Duration.ZERO);
+
+            assertEquals(25, filter.maxRequests(), "an explicit limit should win over the pool size");
+        }
+    }
+}
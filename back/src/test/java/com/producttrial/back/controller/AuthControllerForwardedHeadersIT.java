@@ -0,0 +1,44 @@
+package com.producttrial.back.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Vrai Tomcat : X-Forwarded-For n'est appliqué que par la valve RemoteIp, absente avec MockMvc.
+// Le test se connecte depuis 127.0.0.1, proxy de confiance par défaut
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.forward-headers-strategy=native",
+        "security.login-throttle.max-failures-per-ip=3"})
+class AuthControllerForwardedHeadersIT {
+    @Value("${local.server.port}")
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private int login(String email, String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/token"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"Wrong!1234\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Test
+    void login_behindTrustedProxy_throttlesForwardedClientAddress() throws Exception {
+        // Emails différents : seule la limite par IP peut être atteinte
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, login("unknown" + i + "@test.fr", "203.0.113.7"));
+        }
+
+        assertEquals(429, login("unknown3@test.fr", "203.0.113.7"), "the forwarded client should be throttled");
+        assertEquals(401, login("unknown4@test.fr", "203.0.113.8"), "another client behind the same proxy should not be");
+    }
+}
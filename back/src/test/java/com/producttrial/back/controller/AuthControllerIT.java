@@ -10,15 +10,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import tools.jackson.databind.ObjectMapper;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -88,4 +91,67 @@ class AuthControllerIT {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void login_withHashOfOtherCost_rehashesPassword() throws Exception {
+        // Hash produit avec un coût différent de security.password.bcrypt-strength (4 en test)
+        user1.setPassword(new BCryptPasswordEncoder(5).encode(rawPassword));
+        userRepository.save(user1);
+        AuthRequestDTO authRequestDTO = AuthRequestDTO.builder()
+                .email(user1.getEmail())
+                .password(rawPassword)
+                .build();
+
+        mockMvc.perform(post("/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequestDTO)))
+                .andExpect(status().isOk());
+
+        // Le nouveau hash est calculé en arrière-plan
+        String stored = userRepository.findById(user1.getId()).orElseThrow().getPassword();
+        for (int i = 0; i < 100 && stored.startsWith("$2a$05$"); i++) {
+            Thread.sleep(20);
+            stored = userRepository.findById(user1.getId()).orElseThrow().getPassword();
+        }
+        assertTrue(stored.startsWith("$2a$04$"), "password should be hashed again with the configured cost");
+        assertTrue(passwordEncoder.matches(rawPassword, stored));
+    }
+
+    @Test
+    void login_returnsTooManyRequests_afterRepeatedFailures() throws Exception {
+        // Email et IP propres à ce test : les compteurs sont partagés par tout le contexte Spring
+        User locked = userRepository.save(User.builder()
+                .email("locked@test.fr")
+                .username("locked")
+                .firstname("Locked")
+                .password(passwordEncoder.encode(rawPassword))
+                .build());
+        String badRequest = objectMapper.writeValueAsString(AuthRequestDTO.builder()
+                .email(locked.getEmail())
+                .password("bad password")
+                .build());
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/token")
+                            .with(request -> {
+                                request.setRemoteAddr("10.0.0.23");
+                                return request;
+                            })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(badRequest))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        // Même le bon mot de passe est refusé tant que la fenêtre n'est pas passée
+        mockMvc.perform(post("/token")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.23");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AuthRequestDTO.builder()
+                                .email(locked.getEmail())
+                                .password(rawPassword)
+                                .build())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
 }
@@ -9,6 +9,9 @@ import com.producttrial.back.exception.GlobalExceptionHandler;
 import com.producttrial.back.repository.CartItemRepository;
 import com.producttrial.back.repository.ProductRepository;
 import com.producttrial.back.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +24,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import tools.jackson.databind.ObjectMapper;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -49,6 +53,9 @@ class CartControllerIT {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Product product1;
     private Product product2;
     private CartItem cartItem;
@@ -111,6 +118,80 @@ class CartControllerIT {
         cartItem = cartItemRepository.save(cartItem);
     }
 
+    private Statistics addSecondItemAndResetStatistics() {
+        long now = System.currentTimeMillis();
+        cartItemRepository.save(CartItem.builder()
+                .user(cartItem.getUser())
+                .product(product2)
+                .createdAt(now)
+                .updatedAt(now)
+                .quantity(1)
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void getCart_runsSingleStatementWhateverTheNumberOfItems() throws Exception {
+        String token = obtainToken();
+        Statistics statistics = addSecondItemAndResetStatistics();
+
+        mockMvc.perform(get("/cart")
+                        .param("sort", "id")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[1].productId").value(product2.getId()));
+
+        // Page incomplète : pas de requête count, et ni user ni product ne sont chargés
+        assertEquals(1, statistics.getPrepareStatementCount(), "listing should run a single SQL statement");
+    }
+
+    @Test
+    void scrollCart_runsSingleStatementWhateverTheNumberOfItems() throws Exception {
+        String token = obtainToken();
+        Statistics statistics = addSecondItemAndResetStatistics();
+
+        mockMvc.perform(get("/cart/scroll")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "scroll should not load users or products");
+    }
+
+    @Test
+    void getCartSummary_returnsLinesWithProductDetailsAndTotalsInSingleStatement() throws Exception {
+        String token = obtainToken();
+        Statistics statistics = addSecondItemAndResetStatistics();
+
+        mockMvc.perform(get("/cart/summary")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(2))
+                .andExpect(jsonPath("$.lines[0].productId").value(product1.getId()))
+                .andExpect(jsonPath("$.lines[0].productName").value("Produit A"))
+                .andExpect(jsonPath("$.lines[0].unitPrice").value(10.0))
+                .andExpect(jsonPath("$.lines[0].quantity").value(2))
+                .andExpect(jsonPath("$.lines[0].lineTotal").value(20.0))
+                .andExpect(jsonPath("$.lines[1].productName").value("Produit B"))
+                .andExpect(jsonPath("$.itemCount").value(3))
+                .andExpect(jsonPath("$.subtotal").value(30.0));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "summary should join products in the same statement");
+    }
+
+    @Test
+    void getCartSummary_returnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/cart/summary")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void getCart_returnAllCartItemOfUser() throws Exception {
         String token = obtainToken();
@@ -125,6 +206,19 @@ class CartControllerIT {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    void scrollCart_returnsCartItemsOfUser() throws Exception {
+        String token = obtainToken();
+        mockMvc.perform(get("/cart/scroll")
+                        .param("size", "10")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].productId").value(product1.getId()))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
     @Test
     void getCart_sizeTooLarge_returnsBadRequest() throws Exception {
         String token = obtainToken();
@@ -200,6 +294,24 @@ class CartControllerIT {
                 .andExpect(jsonPath("$.quantity").value(cartItem.getQuantity() + cartItemDTO.getQuantity()));
     }
 
+    @Test
+    void createCartItem_returnsNotFound_whenProductDoesNotExist() throws Exception {
+        String token = obtainToken();
+        CartItemDTO cartItemDTO = CartItemDTO.builder()
+                .productId(product2.getId() + 1000)
+                .quantity(2)
+                .build();
+
+        mockMvc.perform(post("/cart")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cartItemDTO))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+        assertEquals(1, cartItemRepository.count(), "no cart item should be created for an unknown product");
+    }
+
     @Test
     void createCartItem_returnsBadRequest() throws Exception {
         String token = obtainToken();
@@ -235,6 +347,78 @@ class CartControllerIT {
                 .andExpect(jsonPath("$.status").value(401));
     }
 
+    @Test
+    void createCartItems_appliesBatchAndReportsEachItem() throws Exception {
+        String token = obtainToken();
+        String body = """
+                {"items": [
+                  {"productId": %d, "quantity": 3},
+                  {"productId": %d, "quantity": 1},
+                  {"productId": %d, "quantity": 1}
+                ]}""".formatted(product1.getId(), product2.getId(), product2.getId() + 1000);
+
+        mockMvc.perform(post("/cart/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[0].id").value(cartItem.getId()))
+                .andExpect(jsonPath("$[0].quantity").value(5))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].quantity").value(1))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[2].index").value(2));
+        assertEquals(2, cartItemRepository.count());
+    }
+
+    @Test
+    void createCartItems_returnsBadRequest_whenAnItemIsInvalid() throws Exception {
+        String token = obtainToken();
+        String body = """
+                {"items": [{"productId": %d, "quantity": 0}]}""".formatted(product1.getId());
+
+        mockMvc.perform(post("/cart/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields['items[0].quantity']").value("Quantity must be at least 1"));
+    }
+
+    @Test
+    void createCartItems_returnsBadRequest_whenBatchIsEmpty() throws Exception {
+        String token = obtainToken();
+
+        mockMvc.perform(post("/cart/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": []}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields.items").value("Items are required"));
+    }
+
+    @Test
+    void deleteCartItems_deletesOwnedItemsAndReportsOthers() throws Exception {
+        String token = obtainToken();
+        String body = """
+                {"ids": [%d, %d]}""".formatted(cartItem.getId(), cartItem.getId() + 1000);
+
+        mockMvc.perform(delete("/cart/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DELETED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+        assertEquals(0, cartItemRepository.count());
+    }
+
     @Test
     void deleteCartItem_returnsNoContent() throws Exception {
         String token = obtainToken();
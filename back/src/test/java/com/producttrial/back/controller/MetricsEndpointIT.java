@@ -0,0 +1,94 @@
+package com.producttrial.back.controller;
+
+import com.producttrial.back.dto.AuthRequestDTO;
+import com.producttrial.back.entity.User;
+import com.producttrial.back.exception.GlobalExceptionHandler;
+import com.producttrial.back.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(GlobalExceptionHandler.class)
+class MetricsEndpointIT {
+    @Autowired
+    private WebApplicationContext wac;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user1;
+
+    private String obtainToken(String email) throws Exception {
+        AuthRequestDTO authRequestDTO = AuthRequestDTO.builder()
+                .email(email)
+                .password("Mdp!1234")
+                .build();
+
+        String response = mockMvc.perform(post("/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequestDTO)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response).get("token").asString();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).apply(springSecurity()).build();
+        userRepository.deleteAll();
+
+        user1 = User.builder()
+                .email("test@test.fr")
+                .username("test")
+                .firstname("Test")
+                .password(passwordEncoder.encode("Mdp!1234"))
+                .build();
+        user1 = userRepository.save(user1);
+    }
+
+    @Test
+    void prometheus_returnsUnauthorized_withoutToken() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheus_returnsForbidden_forNonAdmin() throws Exception {
+        String token = obtainToken(user1.getEmail());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void health_isPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
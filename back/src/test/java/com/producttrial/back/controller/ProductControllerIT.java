@@ -1,12 +1,19 @@
 package com.producttrial.back.controller;
 
+import com.producttrial.back.cache.ProductCache;
 import com.producttrial.back.dto.AuthRequestDTO;
 import com.producttrial.back.dto.ProductDTO;
 import com.producttrial.back.entity.Product;
 import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.InventoryStatus;
 import com.producttrial.back.exception.GlobalExceptionHandler;
 import com.producttrial.back.repository.ProductRepository;
 import com.producttrial.back.repository.UserRepository;
+import com.producttrial.back.search.ProductSearchIndex;
+import com.producttrial.back.search.ProductSuggestIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,10 +26,19 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import tools.jackson.databind.ObjectMapper;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -45,6 +61,18 @@ class ProductControllerIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Product product1;
     private Product product2;
     private User admin;
@@ -72,6 +100,8 @@ class ProductControllerIT {
         mockMvc = MockMvcBuilders.webAppContextSetup(wac).apply(springSecurity()).build();
         productRepository.deleteAll();
         userRepository.deleteAll();
+        // Les données sont écrites directement via le repository, sans passer par le service
+        productCache.invalidateAll();
 
         product1 = Product.builder()
                 .name("Produit A")
@@ -368,4 +398,615 @@ class ProductControllerIT {
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.status").value(403));
     }
+
+    @Test
+    void getProduct_afterUpdate_returnsFreshProduct() throws Exception {
+        String token = obtainToken(admin.getEmail());
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Produit A"));
+
+        ProductDTO productUpdateDTO = ProductDTO.builder()
+                .name("X2")
+                .code("C1")
+                .price(12.00D)
+                .build();
+        mockMvc.perform(put("/products/{id}", product1.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productUpdateDTO)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("X2"))
+                .andExpect(jsonPath("$.price").value(12.00D));
+    }
+
+    @Test
+    void scrollProducts_walksAllPagesWithCursor() throws Exception {
+        String response = mockMvc.perform(get("/products/scroll")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].code").value("C1"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String cursor = objectMapper.readTree(response).get("nextCursor").asString();
+
+        mockMvc.perform(get("/products/scroll")
+                        .param("size", "1")
+                        .param("cursor", cursor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].code").value("C2"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void scrollProducts_sortedByNameDesc() throws Exception {
+        mockMvc.perform(get("/products/scroll")
+                        .param("sort", "name")
+                        .param("direction", "DESC")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Produit B"))
+                .andExpect(jsonPath("$.content[1].name").value("Produit A"));
+    }
+
+    @Test
+    void getAllProducts_withFilters_returnsMatchingProducts() throws Exception {
+        productRepository.save(Product.builder()
+                .name("Tapis de yoga")
+                .code("C3")
+                .category("Fitness")
+                .price(30.00D)
+                .rating(4.5D)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .createdAt(System.currentTimeMillis())
+                .updatedAt(System.currentTimeMillis())
+                .build());
+
+        mockMvc.perform(get("/products")
+                        .param("category", "Fitness")
+                        .param("inventoryStatus", "INSTOCK")
+                        .param("minPrice", "20")
+                        .param("maxPrice", "40")
+                        .param("minRating", "4")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].code").value("C3"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void getAllProducts_sortedByPriceDesc_returnsMostExpensiveFirst() throws Exception {
+        productRepository.save(Product.builder()
+                .name("Produit C")
+                .code("C3")
+                .price(99.00D)
+                .createdAt(System.currentTimeMillis())
+                .updatedAt(System.currentTimeMillis())
+                .build());
+
+        mockMvc.perform(get("/products")
+                        .param("maxPrice", "100")
+                        .param("sort", "price,desc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].code").value("C3"))
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    void getAllProducts_minPriceGreaterThanMaxPrice_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("minPrice", "50")
+                        .param("maxPrice", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllProducts_unsupportedSort_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("sort", "description")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort property: description"));
+    }
+
+    @Test
+    void getProductListing_withFilter_returnsFilteredSlice() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("count", "NONE")
+                        .param("category", "Inexistante")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void searchProducts_returnsRankedHits() throws Exception {
+        // Les produits du setUp sont écrits via le repository : l'index est reconstruit
+        productSearchIndex.rebuild();
+
+        mockMvc.perform(get("/products/search")
+                        .param("q", "produit b")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].code").value("C2"))
+                .andExpect(jsonPath("$[0].score").isNumber());
+    }
+
+    @Test
+    void searchProducts_seesProductCreatedThroughApi() throws Exception {
+        productSearchIndex.rebuild();
+        String token = obtainToken(admin.getEmail());
+        ProductDTO productDTO = ProductDTO.builder()
+                .code("YOGA-1")
+                .name("Tapis de yoga")
+                .price(25.00D)
+                .build();
+        mockMvc.perform(post("/products")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/products/search")
+                        .param("q", "yog")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].code").value("YOGA-1"));
+    }
+
+    @Test
+    void searchProducts_blankQuery_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/search")
+                        .param("q", "  ")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestProducts_returnsMatchingProducts() throws Exception {
+        productSuggestIndex.onApplicationReady();
+
+        mockMvc.perform(get("/products/suggest")
+                        .param("prefix", "produit")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].code").value("C1"));
+    }
+
+    @Test
+    void suggestProducts_limitTooLarge_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/suggest")
+                        .param("prefix", "pro")
+                        .param("limit", "500")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFacets_returnsCountsAndHistograms() throws Exception {
+        productRepository.save(Product.builder()
+                .name("Tapis de yoga")
+                .code("C3")
+                .category("Fitness")
+                .price(35.00D)
+                .rating(4.5D)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .createdAt(System.currentTimeMillis())
+                .updatedAt(System.currentTimeMillis())
+                .build());
+
+        mockMvc.perform(get("/products/facets")
+                        .param("priceBucket", "20")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.categories[0].value").value(nullValue()))
+                .andExpect(jsonPath("$.categories[0].count").value(2))
+                .andExpect(jsonPath("$.categories[1].value").value("Fitness"))
+                .andExpect(jsonPath("$.priceHistogram.length()").value(2))
+                .andExpect(jsonPath("$.priceHistogram[0].from").value(0.0))
+                .andExpect(jsonPath("$.priceHistogram[0].count").value(2))
+                .andExpect(jsonPath("$.priceHistogram[1].from").value(20.0))
+                .andExpect(jsonPath("$.ratingHistogram[0].from").value(4.0));
+    }
+
+    @Test
+    void getFacets_withFilter_countsOnlyMatchingProducts() throws Exception {
+        mockMvc.perform(get("/products/facets")
+                        .param("category", "Inexistante")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0))
+                .andExpect(jsonPath("$.categories.length()").value(0));
+    }
+
+    @Test
+    void getFacets_withFilter_runsSingleStatement() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/products/facets")
+                        .param("maxPrice", "100")
+                        .param("priceBucket", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.priceHistogram.length()").value(1))
+                .andExpect(jsonPath("$.priceHistogram[0].from").value(10.0));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "facets and price range should come from one statement");
+    }
+
+    @Test
+    void getFacets_invalidPriceBucket_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/facets")
+                        .param("priceBucket", "0")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFacets_priceBucketBelowMinimum_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/facets")
+                        .param("priceBucket", "0.0001")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFacets_tooManyPriceBuckets_returnsBadRequest() throws Exception {
+        productRepository.save(Product.builder()
+                .name("Tapis de yoga")
+                .code("C3")
+                .price(35.00D)
+                .createdAt(System.currentTimeMillis())
+                .updatedAt(System.currentTimeMillis())
+                .build());
+
+        // Prix de 10 à 35 en tranches de 0.01 : 2501 tranches
+        mockMvc.perform(get("/products/facets")
+                        .param("priceBucket", "0.01")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void scrollProducts_invalidCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/scroll")
+                        .param("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void scrollProducts_unsupportedSort_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/scroll")
+                        .param("sort", "description")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort property: description"));
+    }
+
+    @Test
+    void getProductListing_countNone_returnsNoTotal() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("count", "NONE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").value(nullValue()))
+                .andExpect(jsonPath("$.totalExact").value(false));
+    }
+
+    @Test
+    void getProductListing_countEstimate_returnsApproximateTotal() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("count", "ESTIMATE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").isNumber())
+                .andExpect(jsonPath("$.totalExact").value(false));
+    }
+
+    @Test
+    void getProductListing_lastPage_returnsExactTotal() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("page", "1")
+                        .param("size", "1")
+                        .param("count", "ESTIMATE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalExact").value(true));
+    }
+
+    @Test
+    void getProductListing_countNoneOnLastPage_returnsNoTotal() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("page", "1")
+                        .param("size", "1")
+                        .param("count", "NONE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalElements").value(nullValue()))
+                .andExpect(jsonPath("$.totalExact").value(false));
+    }
+
+    @Test
+    void getProductListing_pastLastPage_returnsNoExactTotal() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("page", "7")
+                        .param("size", "1")
+                        .param("count", "ESTIMATE")
+                        .param("category", "Nothing")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.totalElements").value(nullValue()))
+                .andExpect(jsonPath("$.totalExact").value(false));
+    }
+
+    @Test
+    void getProductListing_invalidCountMode_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("count", "SOMETIMES")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importProducts_csv_upsertsByCodeAndReportsInvalidRows() throws Exception {
+        String token = obtainToken(admin.getEmail());
+        String csv = """
+                code,name,price,inventoryStatus
+                C1,Produit importé,12.5,LOWSTOCK
+                C9,"Nouveau, importé",5,
+                ,Sans code,1,
+                C10,Prix invalide,abc,
+                """;
+
+        mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("text/csv")
+                        .content(csv)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("Invalid value for price: abc"));
+
+        // Le cache a été invalidé : la lecture renvoie la version importée
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Produit importé"))
+                .andExpect(jsonPath("$.price").value(12.5D));
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void importProducts_jsonLines_createsProducts() throws Exception {
+        String token = obtainToken(admin.getEmail());
+        String jsonl = """
+                {"code":"J1","name":"Produit J1","price":3}
+                {"code":"J2","name":"Produit J2","price":4,"rating":4.5}
+                """;
+
+        mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("application/x-ndjson")
+                        .content(jsonl)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+        assertEquals(4, productRepository.count());
+    }
+
+    @Test
+    void importProducts_returnsForbidden() throws Exception {
+        String token = obtainToken(user1.getEmail());
+
+        mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("text/csv")
+                        .content("code,name,price\nC9,X,1\n")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void exportProducts_csv_streamsWholeCatalog() throws Exception {
+        String token = obtainToken(admin.getEmail());
+
+        String body = mockMvc.perform(get("/products/export")
+                        .header("Authorization", "Bearer " + token)
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("code,name,description,image,category,price,quantity,internalReference,shellId,inventoryStatus,rating", lines[0]);
+        assertTrue(lines[1].startsWith("C1,Produit A,"));
+        assertTrue(lines[2].startsWith("C2,Produit B,"));
+    }
+
+    @Test
+    void exportProducts_jsonLines_canBeImportedBack() throws Exception {
+        String token = obtainToken(admin.getEmail());
+
+        String body = mockMvc.perform(get("/products/export")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(2, body.lines().count());
+
+        mockMvc.perform(post("/products/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    void exportProducts_returnsForbidden() throws Exception {
+        String token = obtainToken(user1.getEmail());
+
+        mockMvc.perform(get("/products/export")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getProduct_withMatchingETag_returnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}", product1.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + product1.getId() + "-" + product1.getUpdatedAt() + "\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .header("If-None-Match", etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void conditionalGets_servedFromCache_touchNoConnection() throws Exception {
+        String productEtag = mockMvc.perform(get("/products/{id}", product1.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String listingEtag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .header("If-None-Match", productEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products")
+                        .header("If-None-Match", listingEtag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(0, statistics.getPrepareStatementCount(), "revalidation should be answered from the cache");
+        assertEquals(0, statistics.getConnectCount(), "revalidation should not take a pooled connection");
+    }
+
+    @Test
+    void getProduct_withIfModifiedSince_returnsNotModified() throws Exception {
+        String lastModified = mockMvc.perform(get("/products/{id}", product1.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getProduct_afterUpdate_returnsNewBodyForStaleETag() throws Exception {
+        String token = obtainToken(admin.getEmail());
+        String etag = mockMvc.perform(get("/products/{id}", product1.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        // updatedAt est en millisecondes : garantit une nouvelle valeur
+        Thread.sleep(2);
+        ProductDTO update = ProductDTO.builder().id(product1.getId()).name("X2").code("C1").price(12.00D).build();
+        mockMvc.perform(put("/products/{id}", product1.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/{id}", product1.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("X2"));
+    }
+
+    @Test
+    void getProduct_conditionalOnMissingProduct_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/products/{id}", 999_999L)
+                        .header("If-None-Match", "\"999999-1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllProducts_withMatchingETag_returnsNotModifiedUntilCatalogChanges() throws Exception {
+        String token = obtainToken(admin.getEmail());
+        String etag = mockMvc.perform(get("/products")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/products/{id}", product2.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/products")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+    }
+
+    @Test
+    void streamProductChanges_opensEventStream() throws Exception {
+        mockMvc.perform(get("/products/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)));
+    }
 }
@@ -9,6 +9,9 @@ import com.producttrial.back.exception.GlobalExceptionHandler;
 import com.producttrial.back.repository.ProductRepository;
 import com.producttrial.back.repository.UserRepository;
 import com.producttrial.back.repository.WishlistItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +24,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import tools.jackson.databind.ObjectMapper;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -49,6 +53,9 @@ class WishlistControllerIT {
     @Autowired
     private WishlistItemRepository wishlistItemRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Product product1;
     private Product product2;
     private WishlistItem wishlistItem;
@@ -110,6 +117,50 @@ class WishlistControllerIT {
         wishlistItem = wishlistItemRepository.save(wishlistItem);
     }
 
+    private Statistics addSecondItemAndResetStatistics() {
+        long now = System.currentTimeMillis();
+        wishlistItemRepository.save(WishlistItem.builder()
+                .user(wishlistItem.getUser())
+                .product(product2)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void getWishlist_runsSingleStatementWhateverTheNumberOfItems() throws Exception {
+        String token = obtainToken();
+        Statistics statistics = addSecondItemAndResetStatistics();
+
+        mockMvc.perform(get("/wishlist")
+                        .param("sort", "id")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[1].productId").value(product2.getId()));
+
+        // Page incomplète : pas de requête count, et ni user ni product ne sont chargés
+        assertEquals(1, statistics.getPrepareStatementCount(), "listing should run a single SQL statement");
+    }
+
+    @Test
+    void scrollWishlist_runsSingleStatementWhateverTheNumberOfItems() throws Exception {
+        String token = obtainToken();
+        Statistics statistics = addSecondItemAndResetStatistics();
+
+        mockMvc.perform(get("/wishlist/scroll")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "scroll should not load users or products");
+    }
+
     @Test
     void getWishlist_returnAllWishlistItemOfUser() throws Exception {
         String token = obtainToken();
@@ -226,6 +277,46 @@ class WishlistControllerIT {
                 .andExpect(jsonPath("$.status").value(401));
     }
 
+    @Test
+    void createWishlistItems_appliesBatchAndReportsEachItem() throws Exception {
+        String token = obtainToken();
+        String body = """
+                {"items": [
+                  {"productId": %d},
+                  {"productId": %d},
+                  {"productId": %d}
+                ]}""".formatted(product1.getId(), product2.getId(), product2.getId() + 1000);
+
+        mockMvc.perform(post("/wishlist/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ALREADY_EXISTS"))
+                .andExpect(jsonPath("$[0].id").value(wishlistItem.getId()))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"));
+        assertEquals(2, wishlistItemRepository.count());
+    }
+
+    @Test
+    void deleteWishlistItems_deletesOwnedItemsAndReportsOthers() throws Exception {
+        String token = obtainToken();
+        String body = """
+                {"ids": [%d, %d]}""".formatted(wishlistItem.getId() + 1000, wishlistItem.getId());
+
+        mockMvc.perform(delete("/wishlist/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[1].status").value("DELETED"));
+        assertEquals(0, wishlistItemRepository.count());
+    }
+
     @Test
     void deleteWishlistItem_returnsNoContent() throws Exception {
         String token = obtainToken();
@@ -0,0 +1,228 @@
+package com.producttrial.back.event;
+
+import com.producttrial.back.dto.ProductDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductEventBusTest {
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+    private ProductEventBus bus;
+
+    // Enregistre le texte de chaque événement envoyé au lieu de l'écrire dans une réponse HTTP
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                text.append(data.getData());
+            }
+            events.add(text.toString());
+        }
+
+        List<String> events() {
+            return events;
+        }
+
+        List<String> ids() {
+            List<String> ids = new ArrayList<>();
+            for (String event : events) {
+                Matcher matcher = ID.matcher(event);
+                if (matcher.find()) {
+                    ids.add(matcher.group(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private ProductEventBus newBus(int bufferSize, int replaySize, Executor executor) {
+        bus = new ProductEventBus(Duration.ofMinutes(1), bufferSize, replaySize, 10, executor,
+                Executors.newSingleThreadScheduledExecutor());
+        return bus;
+    }
+
+    private static ProductChangedEvent updated(long id) {
+        return ProductChangedEvent.updated(ProductDTO.builder().id(id).code("C" + id).name("P" + id).price(1D).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void onProductChanged_sendsEventsInOrderToEverySubscriber() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        bus.register(first, null);
+        bus.register(second, null);
+
+        bus.onProductChanged(updated(1L));
+        bus.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertEquals(2, first.ids().size());
+        assertEquals(first.ids(), second.ids());
+        assertTrue(first.events().get(1).contains("event:updated"));
+        assertTrue(first.events().get(2).contains("event:deleted"));
+    }
+
+    @Test
+    void register_withLastEventId_replaysOnlyMissedEvents() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter before = new RecordingEmitter();
+        bus.register(before, null);
+        bus.onProductChanged(updated(1L));
+        bus.onProductChanged(updated(2L));
+        bus.onProductChanged(updated(3L));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bus.register(resumed, before.ids().getFirst());
+
+        assertEquals(before.ids().subList(1, 3), resumed.ids());
+    }
+
+    @Test
+    void register_withIdOlderThanReplayRing_sendsReset() {
+        newBus(16, 2, Runnable::run);
+        RecordingEmitter before = new RecordingEmitter();
+        bus.register(before, null);
+        for (long id = 1; id <= 4; id++) {
+            bus.onProductChanged(updated(id));
+        }
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bus.register(resumed, before.ids().getFirst());
+
+        assertEquals(2, resumed.events().size());
+        assertTrue(resumed.events().get(1).contains("event:" + ProductEventBus.RESET_EVENT));
+    }
+
+    @Test
+    void register_withIdFromPreviousRun_sendsReset() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter resumed = new RecordingEmitter();
+
+        bus.register(resumed, "previous-12");
+
+        assertTrue(resumed.events().getLast().contains("event:" + ProductEventBus.RESET_EVENT));
+    }
+
+    @Test
+    void slowSubscriber_dropsOldestEventsAndIsSentReset() {
+        List<Runnable> pending = new ArrayList<>();
+        newBus(2, 16, pending::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        bus.register(slow, null);
+        bus.onProductChanged(updated(1L));
+        bus.onProductChanged(updated(2L));
+        bus.onProductChanged(updated(3L));
+
+        // Un seul drain planifié malgré les trois événements
+        assertEquals(1, pending.size());
+        pending.getFirst().run();
+
+        assertEquals(4, slow.events().size());
+        assertTrue(slow.events().get(1).contains("event:" + ProductEventBus.RESET_EVENT));
+        assertTrue(slow.events().get(2).contains("-2"));
+        assertTrue(slow.events().get(3).contains("-3"));
+    }
+
+    @Test
+    void sendHeartbeats_writesCommentToIdleSubscribers() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter idle = new RecordingEmitter();
+        bus.register(idle, null);
+
+        bus.sendHeartbeats();
+
+        assertEquals(2, idle.events().size());
+        assertTrue(idle.events().get(1).startsWith(":heartbeat"));
+    }
+
+    @Test
+    void disconnectedSubscriber_isRemoved() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter broken = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (!super.events().isEmpty()) {
+                    throw new IOException("Broken pipe");
+                }
+                super.send(builder);
+            }
+        };
+        bus.register(broken, null);
+        assertEquals(1, bus.subscriberCount());
+
+        bus.onProductChanged(updated(1L));
+
+        assertEquals(0, bus.subscriberCount());
+    }
+
+    @Test
+    void productImport_sendsSingleResetInsteadOfEachRow() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter subscriber = new RecordingEmitter();
+        bus.register(subscriber, null);
+
+        bus.onImportStarted(new ProductImportStartedEvent());
+        for (long id = 1; id <= 100; id++) {
+            bus.onProductChanged(updated(id));
+        }
+        assertEquals(1, subscriber.events().size(), "import rows should not be sent one by one");
+        bus.onImportFinished(new ProductImportFinishedEvent());
+
+        assertEquals(2, subscriber.events().size());
+        assertTrue(subscriber.events().get(1).contains("event:" + ProductEventBus.RESET_EVENT));
+
+        bus.onProductChanged(updated(101L));
+        assertEquals(3, subscriber.events().size(), "changes after the import should be sent again");
+    }
+
+    @Test
+    void register_withIdFromBeforeImport_sendsReset() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter before = new RecordingEmitter();
+        bus.register(before, null);
+        bus.onProductChanged(updated(1L));
+        bus.onImportStarted(new ProductImportStartedEvent());
+        bus.onProductChanged(updated(2L));
+        bus.onImportFinished(new ProductImportFinishedEvent());
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bus.register(resumed, before.ids().getFirst());
+
+        assertEquals(2, resumed.events().size());
+        assertTrue(resumed.events().get(1).contains("event:" + ProductEventBus.RESET_EVENT),
+                "changes of the import cannot be replayed");
+    }
+
+    @Test
+    void productImportWithoutChange_sendsNoReset() {
+        newBus(16, 16, Runnable::run);
+        RecordingEmitter subscriber = new RecordingEmitter();
+        bus.register(subscriber, null);
+
+        bus.onImportStarted(new ProductImportStartedEvent());
+        bus.onImportFinished(new ProductImportFinishedEvent());
+
+        assertEquals(1, subscriber.events().size(), "nothing changed, nothing to reload");
+    }
+}
@@ -0,0 +1,48 @@
+package com.producttrial.back.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void next_splitsFieldsAndRecords() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b,c\r\n1,,3\n"));
+
+        assertEquals(List.of("a", "b", "c"), reader.next());
+        assertEquals(List.of("1", "", "3"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_readsQuotedFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"a,b\",\"say \"\"hi\"\"\",\"line1\nline2\"\nnext,row"));
+
+        assertEquals(List.of("a,b", "say \"hi\"", "line1\nline2"), reader.next());
+        assertEquals(List.of("next", "row"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_skipsBlankLines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\n\na,b\n\n\nc,d\n\n"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_readsRecordsLongerThanBuffer() throws IOException {
+        String longField = "x".repeat(20_000);
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(longField + ",\"" + longField + "\"\n"));
+
+        assertEquals(List.of(longField, longField), reader.next());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,69 @@
+package com.producttrial.back.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMetricsFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(registry);
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/products/42");
+    }
+
+    @Test
+    void doFilter_recordsStatementCountByRouteTemplate() throws Exception {
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/products/{id}");
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        };
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        DistributionSummary statements = registry.get(RequestMetricsFilter.SQL_STATEMENTS)
+                .tag("method", "GET")
+                .tag("uri", "/products/{id}")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+        assertNull(registry.find(RequestMetricsFilter.ERRORS).counter(), "a 200 is not an error");
+    }
+
+    @Test
+    void doFilter_countsErrorResponsesByStatus() throws Exception {
+        FilterChain chain = (req, res) -> ((HttpServletResponse) res).setStatus(404);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertEquals(1, registry.get(RequestMetricsFilter.ERRORS)
+                .tag("uri", "UNKNOWN")
+                .tag("status", "404")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void doFilter_countsFailedChainAsServerError_andStopsCounting() {
+        FilterChain failingChain = (req, res) -> {
+            inspector.inspect("select 1");
+            throw new IllegalStateException("boom");
+        };
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), failingChain));
+
+        assertEquals(1, registry.get(RequestMetricsFilter.ERRORS).tag("status", "500").counter().count());
+        // Hors requête, les requêtes SQL ne sont plus comptées
+        inspector.inspect("select 2");
+        assertEquals(0, SqlStatementCounter.end());
+    }
+}
@@ -0,0 +1,164 @@
+package com.producttrial.back.repository;
+
+import com.producttrial.back.dto.BatchItemResultDTO;
+import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.entity.CartItem;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.BatchItemStatus;
+import com.producttrial.back.exception.ProductNotFoundException;
+import com.producttrial.back.exception.UserNotFoundException;
+import com.producttrial.back.service.ICartItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Chemin INSERT ... ON CONFLICT du panier, contre un vrai PostgreSQL migré par Flyway (ignoré sans Docker)
+@SpringBootTest(properties = {
+        "db.upsert.on-conflict=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "product.cache.sync.enabled=false"})
+@ActiveProfiles("postgres")
+@Testcontainers(disabledWithoutDocker = true)
+class CartItemRepositoryPostgresIT {
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+    }
+
+    @Autowired
+    private ICartItemService cartItemService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product1;
+    private Product product2;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cartItemRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        long now = System.currentTimeMillis();
+        product1 = productRepository.save(Product.builder()
+                .name("Produit A")
+                .code("C1")
+                .price(10.00D)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        product2 = productRepository.save(Product.builder()
+                .name("Produit B")
+                .code("C2")
+                .price(10.00D)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        user = userRepository.save(User.builder()
+                .email("test@test.fr")
+                .username("test")
+                .firstname("Test")
+                .password("hash")
+                .build());
+    }
+
+    private static CartItemDTO item(Long productId, int quantity) {
+        return CartItemDTO.builder().productId(productId).quantity(quantity).build();
+    }
+
+    @Test
+    void save_existingLine_incrementsQuantityAndKeepsId() {
+        CartItem created = cartItemService.save(item(product1.getId(), 2), user.getId());
+        CartItem updated = cartItemService.save(item(product1.getId(), 3), user.getId());
+
+        assertNotNull(created.getId(), "RETURNING should map the inserted line");
+        assertEquals(created.getId(), updated.getId(), "the conflicting insert should update the existing line");
+        assertEquals(5, updated.getQuantity(), "quantities should be added by the database");
+        assertEquals(1, cartItemRepository.count(), "only one line should exist");
+    }
+
+    @Test
+    void save_unknownProduct_throwsProductNotFoundException() {
+        assertThrows(ProductNotFoundException.class, () -> cartItemService.save(item(-1L, 1), user.getId()),
+                "fk_cart_item_product should be mapped to a missing product");
+    }
+
+    @Test
+    void save_unknownUser_throwsUserNotFoundException() {
+        assertThrows(UserNotFoundException.class, () -> cartItemService.save(item(product1.getId(), 1), -1L),
+                "fk_cart_item_user should be mapped to a missing user");
+    }
+
+    @Test
+    void saveBatch_addsToExistingLines() {
+        cartItemService.save(item(product1.getId(), 1), user.getId());
+
+        List<BatchItemResultDTO> results = cartItemService.saveBatch(
+                List.of(item(product1.getId(), 2), item(product2.getId(), 4)), user.getId());
+
+        assertEquals(BatchItemStatus.UPDATED, results.get(0).getStatus(), "existing line should be updated");
+        assertEquals(3, results.get(0).getQuantity(), "quantity should be added to the existing one");
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus(), "new line should be created");
+        assertEquals(4, results.get(1).getQuantity());
+    }
+
+    @Test
+    void saveBatch_repeatedRightAway_reportsUpdatedLines() {
+        List<CartItemDTO> items = List.of(item(product1.getId(), 1), item(product2.getId(), 2));
+
+        List<BatchItemResultDTO> first = cartItemService.saveBatch(items, user.getId());
+        // Souvent dans la même milliseconde : le statut vient de l'upsert, pas des dates de la ligne
+        List<BatchItemResultDTO> second = cartItemService.saveBatch(items, user.getId());
+
+        assertTrue(first.stream().allMatch(result -> result.getStatus() == BatchItemStatus.CREATED),
+                "first batch should create the lines");
+        assertTrue(second.stream().allMatch(result -> result.getStatus() == BatchItemStatus.UPDATED),
+                "second batch should update the lines");
+        assertEquals(first.get(0).getId(), second.get(0).getId(), "updated line should keep its id");
+        assertEquals(4, second.get(1).getQuantity());
+    }
+
+    @Test
+    void save_conflictingInserts_doNotBurnSequenceBlocks() {
+        cartItemService.save(item(product1.getId(), 1), user.getId());
+        long before = jdbcTemplate.queryForObject("select last_value from cart_item_seq", Long.class);
+
+        for (int i = 0; i < 20; i++) {
+            cartItemService.save(item(product1.getId(), 1), user.getId());
+        }
+
+        long after = jdbcTemplate.queryForObject("select last_value from cart_item_seq", Long.class);
+        // Ids pris dans le bloc pooled-lo en cours : au plus un nouveau bloc de 50, pas un bloc par ligne
+        assertTrue(after - before <= 50, "conflicting upserts should not reserve a sequence block each");
+    }
+}
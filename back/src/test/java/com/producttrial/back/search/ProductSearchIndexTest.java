@@ -0,0 +1,173 @@
+package com.producttrial.back.search;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import com.producttrial.back.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(productRepository);
+        index.index(product(1L, "Écharpe en laine", "SCARF-01", "Accessories", "Chaude et douce"));
+        index.index(product(2L, "Bracelet en cuir", "BRACE-02", "Accessories", "Un bracelet élégant"));
+        index.index(product(3L, "Tapis de yoga", "YOGA-03", "Fitness", "Tapis antidérapant pour le yoga et le pilates"));
+    }
+
+    private static ProductDTO product(Long id, String name, String code, String category, String description) {
+        return ProductDTO.builder().id(id).name(name).code(code).category(category).description(description).price(10.0D).build();
+    }
+
+    @Test
+    void search_ignoresCaseAndAccents() {
+        List<ProductSearchHitDTO> hits = index.search("ECHARPE ", 10);
+
+        assertEquals(1, hits.size(), "one product should match");
+        assertEquals(1L, hits.get(0).getId(), "the scarf should match");
+    }
+
+    @Test
+    void search_matchesLastTermAsPrefix() {
+        List<ProductSearchHitDTO> hits = index.search("tapis yo", 10);
+
+        assertEquals(1, hits.size(), "one product should match");
+        assertEquals(3L, hits.get(0).getId(), "the yoga mat should match");
+    }
+
+    @Test
+    void search_trailingSpace_disablesPrefixMatching() {
+        assertTrue(index.search("yo ", 10).isEmpty(), "a complete term should not be expanded");
+    }
+
+    @Test
+    void search_requiresEveryTerm() {
+        assertTrue(index.search("bracelet yoga", 10).isEmpty(), "no product contains both terms");
+    }
+
+    @Test
+    void search_ranksNameMatchesBeforeDescriptionMatches() {
+        index.index(product(4L, "Gourde", "BOTTLE-04", "Fitness", "Idéale après le yoga"));
+
+        List<ProductSearchHitDTO> hits = index.search("yoga", 10);
+
+        assertEquals(2, hits.size(), "two products should match");
+        assertEquals(3L, hits.get(0).getId(), "the name match should come first");
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore(), "scores should be decreasing");
+    }
+
+    @Test
+    void search_respectsLimit() {
+        assertEquals(1, index.search("accessories", 1).size(), "only one hit should be returned");
+    }
+
+    @Test
+    void onProductChanged_updatedProduct_replacesOldTerms() {
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "Bonnet", "HAT-01", "Accessories", null)));
+
+        assertTrue(index.search("echarpe", 10).isEmpty(), "old name should not match anymore");
+        assertEquals(1L, index.search("bonnet", 10).get(0).getId(), "new name should match");
+    }
+
+    @Test
+    void onProductChanged_deletedProduct_removesItsTerms() {
+        int terms = index.termCount();
+
+        index.onProductChanged(ProductChangedEvent.deleted(3L));
+
+        assertTrue(index.search("yoga", 10).isEmpty(), "deleted product should not match");
+        assertEquals(2, index.size(), "two products should remain");
+        assertTrue(index.termCount() < terms, "terms only used by the deleted product should be dropped");
+    }
+
+    @Test
+    void onProductChanged_allDeleted_clearsIndex() {
+        index.onProductChanged(ProductChangedEvent.allDeleted());
+
+        assertEquals(0, index.size(), "index should be empty");
+        assertEquals(0, index.termCount(), "index should have no term");
+    }
+
+    @Test
+    void rebuild_loadsProductsFromRepository() {
+        Product product = Product.builder().id(7L).name("Montre connectée").code("WATCH-07").price(99.0D).build();
+        Window<Product> window = Window.from(List.of(product), ScrollPosition::offset);
+        when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class))).thenReturn(window);
+
+        index.rebuild();
+
+        assertEquals(1, index.size(), "only the repository product should be indexed");
+        assertEquals(7L, index.search("montre", 10).get(0).getId(), "the watch should match");
+    }
+
+    @Test
+    void rebuild_servesOldIndexAndReplaysChangesReceivedWhileScanning() {
+        Product watch = Product.builder().id(7L).name("Montre connectée").code("WATCH-07").price(99.0D).build();
+        Product mat = Product.builder().id(3L).name("Tapis de yoga").code("YOGA-03").price(10.0D).build();
+        when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class))).thenAnswer(invocation -> {
+            // Pendant le scan : l'ancien index répond toujours, et des changements arrivent
+            assertEquals(1L, index.search("echarpe", 10).get(0).getId(), "old index should still be served");
+            index.onProductChanged(ProductChangedEvent.deleted(3L));
+            index.onProductChanged(ProductChangedEvent.created(product(8L, "Gourde", "BOTTLE-08", "Fitness", null)));
+            return Window.from(List.of(watch, mat), ScrollPosition::offset);
+        });
+
+        index.rebuild();
+
+        assertEquals(7L, index.search("montre", 10).get(0).getId(), "scanned product should be indexed");
+        assertEquals(8L, index.search("gourde", 10).get(0).getId(), "product created during the scan should be replayed");
+        assertTrue(index.search("yoga", 10).isEmpty(), "product deleted during the scan should not be reinserted");
+        assertEquals(2, index.size(), "only the watch and the bottle should remain");
+    }
+
+    @Test
+    void reload_reindexesFoundProductsAndRemovesMissingOnes() {
+        Product renamed = Product.builder().id(1L).name("Bonnet").code("HAT-01").price(10.0D).build();
+        when(productRepository.findAllById(any())).thenReturn(List.of(renamed));
+
+        index.onRemoteProductsChanged(RemoteProductsChangedEvent.of(Set.of(1L, 3L)));
+
+        assertEquals(1L, index.search("bonnet", 10).get(0).getId(), "remotely updated product should be reindexed");
+        assertTrue(index.search("echarpe", 10).isEmpty(), "old name should not match anymore");
+        assertTrue(index.search("yoga", 10).isEmpty(), "remotely deleted product should be removed");
+        assertEquals(2, index.size(), "the bracelet and the hat should remain");
+    }
+
+    @Test
+    void remove_keepsOtherProductsOfSharedTermsSearchable() {
+        for (long id = 10; id < 20; id++) {
+            index.index(product(id, "Gourde " + id, "BOTTLE-" + id, "Fitness", null));
+        }
+
+        // Retraits au milieu puis réutilisation des places libérées
+        index.remove(12L);
+        index.remove(15L);
+        index.index(product(15L, "Gourde isotherme", "BOTTLE-15", "Fitness", null));
+        index.index(product(30L, "Gourde pliable", "BOTTLE-30", "Fitness", null));
+
+        List<ProductSearchHitDTO> hits = index.search("gourde", 20);
+        assertEquals(10, hits.size(), "every remaining bottle should match");
+        assertTrue(hits.stream().noneMatch(hit -> hit.getId() == 12L), "removed bottle should not match");
+        assertEquals(15L, index.search("isotherme", 10).get(0).getId(), "reindexed bottle should match its new name");
+        assertEquals(30L, index.search("pliable", 10).get(0).getId(), "bottle added in a freed place should match");
+    }
+}
@@ -0,0 +1,141 @@
+package com.producttrial.back.search;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
+import com.producttrial.back.entity.Product;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.ProductImportFinishedEvent;
+import com.producttrial.back.event.ProductImportStartedEvent;
+import com.producttrial.back.event.RemoteProductsChangedEvent;
+import com.producttrial.back.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+    private ProductRepository productRepository;
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSuggestIndex(productRepository, Duration.ofMinutes(1));
+        add(1L, "Écharpe en laine", "SCARF-01", 3.0);
+        add(2L, "Tapis de yoga", "YOGA-02", 4.5);
+        add(3L, "Tapis de souris", "MOUSE-03", 4.0);
+        add(4L, "Tasse", "MUG-04", null);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    private void add(Long id, String name, String code, Double rating) {
+        index.onProductChanged(ProductChangedEvent.created(
+                ProductDTO.builder().id(id).name(name).code(code).rating(rating).price(1.0D).build()));
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+    }
+
+    @Test
+    void suggest_ranksByRating() {
+        assertEquals(List.of(2L, 3L, 4L), ids(index.suggest("ta", 10)), "best rated first, unrated last");
+    }
+
+    @Test
+    void suggest_matchesWordsInsideName() {
+        assertEquals(List.of(2L), ids(index.suggest("yog", 10)), "a word of the name should match");
+    }
+
+    @Test
+    void suggest_matchesCodeIgnoringCaseAndPunctuation() {
+        assertEquals(List.of(3L), ids(index.suggest("mouse-0", 10)), "the code should match");
+    }
+
+    @Test
+    void suggest_ignoresAccents() {
+        assertEquals(List.of(1L), ids(index.suggest("ECHAR", 10)), "accents should be ignored");
+    }
+
+    @Test
+    void suggest_respectsLimit() {
+        assertEquals(List.of(2L), ids(index.suggest("tapis", 1)), "only the best suggestion should be returned");
+    }
+
+    @Test
+    void suggest_returnsEachProductOnce() {
+        assertEquals(List.of(2L), ids(index.suggest("yoga", 10)), "name word and code both match, once only");
+    }
+
+    @Test
+    void suggest_largeRange_usesPrecomputedTopK() {
+        for (long id = 100; id < 500; id++) {
+            add(id, "Produit " + id, "P-" + id, (double) (id % 5));
+        }
+        index.rebuild();
+
+        List<ProductSuggestionDTO> suggestions = index.suggest("produit", 5);
+
+        assertEquals(5, suggestions.size(), "five suggestions should be returned");
+        assertTrue(suggestions.stream().allMatch(s -> s.getRating() == 4.0), "only the best rated products should be kept");
+        assertEquals(List.of(104L), ids(index.suggest("produit 104", 5)), "a longer prefix should still match exactly");
+    }
+
+    @Test
+    void onProductChanged_changesAreVisibleAfterRebuild() {
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+        index.onProductChanged(ProductChangedEvent.updated(
+                ProductDTO.builder().id(4L).name("Tapis de bain").code("MUG-04").rating(5.0).price(1.0D).build()));
+        index.rebuild();
+
+        assertEquals(List.of(4L, 3L), ids(index.suggest("tapis", 10)), "deleted product gone, updated product ranked first");
+    }
+
+    @Test
+    void onRemoteProductsChanged_reloadsChangedProductsFromRepository() {
+        Product renamed = Product.builder().id(3L).name("Tapis de course").code("RUN-03").rating(5.0).price(1.0D).build();
+        when(productRepository.findAllById(any())).thenReturn(List.of(renamed));
+
+        index.onRemoteProductsChanged(RemoteProductsChangedEvent.of(Set.of(2L, 3L)));
+        index.rebuild();
+
+        assertEquals(List.of(3L), ids(index.suggest("tapis", 10)), "remotely deleted product gone, renamed product reloaded");
+        assertEquals(List.of(3L), ids(index.suggest("cour", 10)), "the new name should match");
+    }
+
+    @Test
+    void onProductChanged_duringImport_rebuildsOnceImportIsFinished() throws InterruptedException {
+        ProductSuggestIndex importing = new ProductSuggestIndex(productRepository, Duration.ZERO);
+        try {
+            importing.onImportStarted(new ProductImportStartedEvent());
+            importing.onProductChanged(ProductChangedEvent.created(
+                    ProductDTO.builder().id(50L).name("Gourde").code("BOTTLE-50").price(1.0D).build()));
+            Thread.sleep(100);
+            assertTrue(importing.suggest("gou", 10).isEmpty(), "no rebuild should run during the import");
+
+            importing.onImportFinished(new ProductImportFinishedEvent());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (importing.suggest("gou", 10).isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(List.of(50L), ids(importing.suggest("gou", 10)), "the end of the import should trigger a rebuild");
+        } finally {
+            importing.shutdown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.producttrial.back.security;
+
+import com.producttrial.back.service.IJwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+    private final IJwtService jwtService = mock(IJwtService.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    @Test
+    void doFilter_grantsRoleAuthorities() throws Exception {
+        when(jwtService.parseToken("token"))
+                .thenReturn(Optional.of(new JwtClaims("1", List.of("USER", "ADMIN"), Instant.now().plusSeconds(60))));
+
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("1", auth.getPrincipal());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+                auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void doFilter_unknownRole_isIgnored() throws Exception {
+        when(jwtService.parseToken("token"))
+                .thenReturn(Optional.of(new JwtClaims("1", List.of("SUPERVISOR", "USER"), Instant.now().plusSeconds(60))));
+
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(List.of("ROLE_USER"),
+                auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                "a role missing from Role should not grant any authority");
+    }
+}
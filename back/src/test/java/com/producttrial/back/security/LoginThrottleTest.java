@@ -0,0 +1,129 @@
+package com.producttrial.back.security;
+
+import com.producttrial.back.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private static final String IP = "10.0.0.1";
+
+    private MutableClock clock;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        throttle = new LoginThrottle(Duration.ofMinutes(10), 3, 5, 1000, clock);
+    }
+
+    @Test
+    void checkAllowed_rejectsEmailAfterMaxFailures() {
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("user@test.fr", IP);
+            throttle.recordFailure("user@test.fr", IP);
+        }
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkAllowed("user@test.fr", IP));
+        assertEquals(600, ex.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> throttle.checkAllowed("other@test.fr", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAllowed_normalizesEmail() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure(" User@Test.fr", IP);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("user@test.fr", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAllowed_rejectsIpAfterMaxFailures_whateverTheEmail() {
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i + "@test.fr", IP);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("new@test.fr", IP));
+        assertDoesNotThrow(() -> throttle.checkAllowed("new@test.fr", "10.0.0.2"));
+    }
+
+    @Test
+    void recordSuccess_clearsEmailFailuresButNotIpFailures() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("user@test.fr", IP);
+        }
+        throttle.recordSuccess("user@test.fr");
+
+        assertDoesNotThrow(() -> throttle.checkAllowed("user@test.fr", "10.0.0.2"));
+        throttle.recordFailure("other@test.fr", IP);
+        throttle.recordFailure("other@test.fr", IP);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("third@test.fr", IP));
+    }
+
+    @Test
+    void failuresFadeOutAsTheWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("user@test.fr", IP);
+        }
+
+        // Fenêtre suivante, à mi-parcours : les 3 échecs ne comptent plus que pour moitié
+        clock.advance(Duration.ofMinutes(15));
+        assertDoesNotThrow(() -> throttle.checkAllowed("user@test.fr", IP));
+        throttle.recordFailure("user@test.fr", IP);
+        assertDoesNotThrow(() -> throttle.checkAllowed("user@test.fr", IP));
+        throttle.recordFailure("user@test.fr", IP);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("user@test.fr", IP));
+
+        clock.advance(Duration.ofMinutes(30));
+        assertDoesNotThrow(() -> throttle.checkAllowed("user@test.fr", IP));
+    }
+
+    @Test
+    void slidingWindowCounter_weightsPreviousWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1000);
+
+        counter.increment(500);
+        counter.increment(900);
+        assertEquals(2.0, counter.estimate(999), 1e-9);
+        assertEquals(1.5, counter.estimate(1250), 1e-9);
+        assertEquals(2.0, counter.increment(1500), 1e-9);
+        assertEquals(1.0, counter.estimate(2000), 1e-9);
+        assertEquals(0.0, counter.estimate(3000), 1e-9);
+        assertEquals(250, counter.millisUntilNextWindow(2750));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.producttrial.back.service;
 
 import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.Role;
 import com.producttrial.back.service.serviceimpl.AuthorizationServiceImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,12 +12,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -75,39 +79,24 @@ class AuthorizationServiceTest {
 
     @Test
     void ensureAdmin_passes_forAdmin() {
-        User user = User.builder()
-                .id(1L)
-                .username("test")
-                .firstname("Test")
-                .email("admin@admin.com")
-                .build();
-
-        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("1", null, Collections.emptyList());
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("1", null,
+                List.of(new SimpleGrantedAuthority(Role.ADMIN.authority())));
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        when(userService.findById(1L)).thenReturn(Optional.of(user));
-
-
         assertDoesNotThrow(() -> authorizationService.ensureAdmin());
+        verifyNoInteractions(userService);
     }
 
     @Test
     void ensureAdmin_throws_forNonAdmin() {
-        User user = User.builder()
-                .id(1L)
-                .username("test")
-                .firstname("Test")
-                .email("admin@admin.fr")
-                .build();
-
-        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("1", null, Collections.emptyList());
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("1", null,
+                List.of(new SimpleGrantedAuthority(Role.USER.authority())));
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        when(userService.findById(1L)).thenReturn(Optional.of(user));
-
         AccessDeniedException ex = assertThrows(AccessDeniedException.class,
                 () -> authorizationService.ensureAdmin());
         assertTrue(ex.getMessage().toLowerCase().contains("access denied"));
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -117,4 +106,18 @@ class AuthorizationServiceTest {
 
         assertThrows(AccessDeniedException.class, () -> authorizationService.ensureAdmin());
     }
+
+    @Test
+    void rolesOf_returnsAdminRole_forAdminEmail() {
+        User user = User.builder().id(1L).email("ADMIN@admin.com").build();
+
+        assertEquals(List.of(Role.USER, Role.ADMIN), authorizationService.rolesOf(user));
+    }
+
+    @Test
+    void rolesOf_returnsUserRole_forOtherEmail() {
+        User user = User.builder().id(2L).email("test@test.fr").build();
+
+        assertEquals(List.of(Role.USER), authorizationService.rolesOf(user));
+    }
 }
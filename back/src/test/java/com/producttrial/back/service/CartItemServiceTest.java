@@ -1,30 +1,47 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
 import com.producttrial.back.dto.CartItemDTO;
+import com.producttrial.back.dto.CartLineDTO;
+import com.producttrial.back.dto.CartSummaryDTO;
 import com.producttrial.back.entity.CartItem;
 import com.producttrial.back.entity.Product;
 import com.producttrial.back.entity.User;
+import com.producttrial.back.enums.BatchItemStatus;
 import com.producttrial.back.exception.CartItemNotFoundException;
+import com.producttrial.back.exception.ConcurrentCartUpdateException;
 import com.producttrial.back.exception.ProductNotFoundException;
 import com.producttrial.back.exception.UserNotFoundException;
 import com.producttrial.back.repository.CartItemRepository;
+import com.producttrial.back.repository.CartItemRepositoryCustom.AddedLine;
 import com.producttrial.back.service.serviceimpl.CartItemServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,10 +49,11 @@ class CartItemServiceTest {
     @Mock
     private CartItemRepository cartItemRepository;
     @Mock
-    private IUserService userService;
-    @Mock
     private IProductService productService;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private CartItemServiceImpl cartItemService;
 
@@ -76,78 +94,74 @@ class CartItemServiceTest {
     }
 
     @Test
-    void save_setsTimestampsAndReturnsSavedCartItem() {
-        when(userService.findById(1L)).thenReturn(Optional.of(user));
-        when(productService.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByUserIdAndProductId(1L, 1L)).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
-            CartItem c = invocation.getArgument(0);
-            c.setId(1L);
-            return c;
-        });
-
+    void save_addsQuantityInSingleRepositoryCall() {
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong())).thenAnswer(invocation -> CartItem.builder()
+                .id(1L)
+                .user(user)
+                .product(product)
+                .quantity(invocation.getArgument(2))
+                .createdAt(invocation.getArgument(3))
+                .updatedAt(invocation.getArgument(3))
+                .build());
 
         // Pour vérifier que les timestamps sont dans le bon interval
         long before = System.currentTimeMillis();
         CartItem saved = cartItemService.save(cartItemDTO, 1L);
         long after = System.currentTimeMillis();
 
-        assertNotNull(saved.getId(), "id should not be null");
         assertEquals(1L, saved.getId(), "id should be 1");
-        assertEquals("X", saved.getProduct().getName(), "name should be X");
-        assertEquals("test@test.fr", saved.getUser().getEmail(),"email should be test@test.fr");
         assertEquals(2, saved.getQuantity(), "quantity should be 2");
-
-        assertNotNull(saved.getCreatedAt(), "createdAt should not be null");
-        assertNotNull(saved.getUpdatedAt(), "updatedAt should not be null");
-        assertTrue(saved.getCreatedAt() >= before && saved.getCreatedAt() <= after + 1000,
-                "createdAt must be between before and after");
-        assertTrue(saved.getUpdatedAt() >= before && saved.getUpdatedAt() <= after + 1000,
+        assertTrue(saved.getUpdatedAt() >= before && saved.getUpdatedAt() <= after,
                 "updatedAt must be between before and after");
+        verify(cartItemRepository, never()).findByUserIdAndProductId(any(), any());
+        verify(cartItemRepository, never()).save(any(CartItem.class));
     }
 
     @Test
-    void save_updatesExistingCartItem(){
-        CartItem existingCartItem = CartItem.builder()
-                .id(1L)
-                .user(user)
-                .product(product)
-                .quantity(2)
-                .createdAt(System.currentTimeMillis())
-                .updatedAt(System.currentTimeMillis())
-                .build();
+    void save_throwsProductNotFoundException_whenProductForeignKeyIsViolated() {
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong()))
+                .thenThrow(foreignKeyViolation("fk_cart_item_product"));
 
-        when(userService.findById(1L)).thenReturn(Optional.of(user));
-        when(productService.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByUserIdAndProductId(1L, 1L))
-                .thenReturn(Optional.of(existingCartItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        CartItem saved = cartItemService.save(cartItemDTO, 1L);
+        assertThrows(ProductNotFoundException.class, () -> cartItemService.save(cartItemDTO, 1L));
+    }
 
-        assertNotNull(saved.getId(), "id should not be null");
-        assertEquals(1L, saved.getId(), "id should be 1");
-        assertEquals("X", saved.getProduct().getName(), "name should be X");
-        assertEquals("test@test.fr", saved.getUser().getEmail(), "email should be test@test.fr");
-        assertEquals(4, saved.getQuantity(), "quantity should be 4"); // 2 + 2
+    @Test
+    void save_throwsUserNotFoundException_whenUserForeignKeyIsViolated() {
+        // H2 remonte le nom de la contrainte en majuscules
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong()))
+                .thenThrow(foreignKeyViolation("PUBLIC.FK_CART_ITEM_USER"));
 
-        assertTrue(saved.getUpdatedAt() > saved.getCreatedAt(), "updated should be greater than created");
+        assertThrows(UserNotFoundException.class, () -> cartItemService.save(cartItemDTO, 1L));
     }
 
     @Test
-    void save_throwsUserNotFoundException_whenUserDoesNotExist() {
-        when(userService.findById(1L)).thenReturn(Optional.empty());
+    void save_throwsConcurrentCartUpdateException_whenUniqueConstraintIsViolated() {
+        // Repli H2 : deux premiers ajouts concurrents du même produit
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong()))
+                .thenThrow(foreignKeyViolation("PUBLIC.UC_CART_USER_PRODUCT"));
 
-        assertThrows(UserNotFoundException.class, () -> cartItemService.save(cartItemDTO, 1L));
+        assertThrows(ConcurrentCartUpdateException.class, () -> cartItemService.save(cartItemDTO, 1L));
+    }
+
+    @Test
+    void save_throwsConcurrentCartUpdateException_whenLockIsNotAcquired() {
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong()))
+                .thenThrow(new PessimisticLockingFailureException("timeout trying to lock table"));
 
+        assertThrows(ConcurrentCartUpdateException.class, () -> cartItemService.save(cartItemDTO, 1L));
     }
 
     @Test
-    void save_throwsProductNotFoundException_whenProductDoesNotExist() {
-        when(userService.findById(1L)).thenReturn(Optional.of(user));
-        when(productService.findById(1L)).thenReturn(Optional.empty());
+    void save_rethrowsOtherIntegrityViolations() {
+        DataIntegrityViolationException violation = foreignKeyViolation("cart_item_quantity_check");
+        when(cartItemRepository.addQuantity(eq(1L), eq(1L), eq(2), anyLong())).thenThrow(violation);
 
-        assertThrows(ProductNotFoundException.class, () -> cartItemService.save(cartItemDTO, 1L));
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> cartItemService.save(cartItemDTO, 1L)));
+    }
+
+    private static DataIntegrityViolationException foreignKeyViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violation"), constraintName));
     }
 
     @Test
@@ -174,13 +188,13 @@ class CartItemServiceTest {
     }
 
     @Test
-    void getCart_returnsMappedPage() {
+    void getCart_returnsProjectedPage() {
         Pageable pageable = PageRequest.of(0, 10);
 
-        CartItem item = CartItem.builder().id(1L).build();
-        Page<CartItem> page = new PageImpl<>(List.of(item));
+        CartItemDTO item = CartItemDTO.builder().id(1L).productId(2L).build();
+        Page<CartItemDTO> page = new PageImpl<>(List.of(item));
 
-        when(cartItemRepository.findByUserId(pageable, userId)).thenReturn(page);
+        when(cartItemRepository.findDtosByUserId(userId, pageable)).thenReturn(page);
 
         Page<CartItemDTO> result = cartItemService.getCart(pageable, userId);
 
@@ -189,9 +203,9 @@ class CartItemServiceTest {
     }
 
     @Test
-    void getCartItemById_returnsMappedDto_whenItemExists() {
-        CartItem item = CartItem.builder().id(itemId).build();
-        when(cartItemRepository.findByIdAndUserId(itemId, userId)).thenReturn(Optional.of(item));
+    void getCartItemById_returnsProjectedDto_whenItemExists() {
+        CartItemDTO item = CartItemDTO.builder().id(itemId).build();
+        when(cartItemRepository.findDtoByIdAndUserId(itemId, userId)).thenReturn(Optional.of(item));
 
         Optional<CartItemDTO> dto = cartItemService.getCartItemById(itemId, userId);
 
@@ -201,11 +215,115 @@ class CartItemServiceTest {
 
     @Test
     void getCartItemById_returnsEmpty_whenItemDoesNotExist() {
-        when(cartItemRepository.findByIdAndUserId(itemId, userId)).thenReturn(Optional.empty());
+        when(cartItemRepository.findDtoByIdAndUserId(itemId, userId)).thenReturn(Optional.empty());
 
         Optional<CartItemDTO> dto = cartItemService.getCartItemById(itemId, userId);
 
         assertTrue(dto.isEmpty());
     }
 
+    @Test
+    void getCartSummary_sumsQuantitiesAndLineTotals() {
+        List<CartLineDTO> lines = List.of(
+                CartLineDTO.builder().id(1L).productId(1L).unitPrice(10.10D).quantity(2).lineTotal(20.20D).build(),
+                CartLineDTO.builder().id(2L).productId(2L).unitPrice(0.10D).quantity(3).lineTotal(0.30D).build());
+        when(cartItemRepository.findLinesByUserId(userId)).thenReturn(lines);
+
+        CartSummaryDTO summary = cartItemService.getCartSummary(userId);
+
+        assertEquals(2, summary.getLines().size());
+        assertEquals(5, summary.getItemCount());
+        assertEquals(20.50D, summary.getSubtotal());
+        verify(cartItemRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void getCartSummary_returnsZeroTotals_whenCartIsEmpty() {
+        when(cartItemRepository.findLinesByUserId(userId)).thenReturn(List.of());
+
+        CartSummaryDTO summary = cartItemService.getCartSummary(userId);
+
+        assertTrue(summary.getLines().isEmpty());
+        assertEquals(0, summary.getItemCount());
+        assertEquals(0D, summary.getSubtotal());
+    }
+
+    @Test
+    void saveBatch_sumsDuplicatesAndReportsUnknownProducts() {
+        List<CartItemDTO> dtos = List.of(
+                CartItemDTO.builder().productId(1L).quantity(2).build(),
+                CartItemDTO.builder().productId(2L).quantity(1).build(),
+                CartItemDTO.builder().productId(1L).quantity(3).build());
+        when(productService.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+        when(cartItemRepository.addQuantities(eq(userId), eq(Map.of(1L, 5)), anyLong()))
+                .thenReturn(Map.of(1L, new AddedLine(7L, 9, false)));
+
+        List<BatchItemResultDTO> results = cartItemService.saveBatch(dtos, userId);
+
+        assertEquals(3, results.size());
+        assertEquals(BatchItemStatus.UPDATED, results.get(0).getStatus());
+        assertEquals(7L, results.get(0).getId());
+        assertEquals(9, results.get(0).getQuantity());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(2L, results.get(1).getProductId());
+        assertEquals(2, results.get(2).getIndex());
+        assertEquals(BatchItemStatus.UPDATED, results.get(2).getStatus());
+    }
+
+    @Test
+    void saveBatch_reportsCreatedLines_fromUpsert() {
+        when(productService.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+        when(cartItemRepository.addQuantities(eq(userId), eq(Map.of(1L, 1, 2L, 2)), anyLong()))
+                .thenReturn(Map.of(1L, new AddedLine(7L, 4, false), 2L, new AddedLine(8L, 2, true)));
+
+        List<BatchItemResultDTO> results = cartItemService.saveBatch(List.of(
+                CartItemDTO.builder().productId(1L).quantity(1).build(),
+                CartItemDTO.builder().productId(2L).quantity(2).build()), userId);
+
+        assertEquals(BatchItemStatus.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(8L, results.get(1).getId());
+        assertEquals(2, results.get(1).getQuantity());
+    }
+
+    @Test
+    void saveBatch_writesNothing_whenNoProductExists() {
+        when(productService.findExistingIds(Set.of(1L))).thenReturn(Set.of());
+
+        List<BatchItemResultDTO> results = cartItemService.saveBatch(List.of(cartItemDTO), userId);
+
+        assertEquals(BatchItemStatus.NOT_FOUND, results.getFirst().getStatus());
+        verify(cartItemRepository, never()).addQuantities(any(), anyMap(), anyLong());
+    }
+
+    @Test
+    void saveBatch_throwsUserNotFoundException_whenUserForeignKeyIsViolated() {
+        when(productService.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+        doThrow(foreignKeyViolation("fk_cart_item_user")).when(cartItemRepository).addQuantities(eq(userId), anyMap(), anyLong());
+
+        assertThrows(UserNotFoundException.class, () -> cartItemService.saveBatch(List.of(cartItemDTO), userId));
+    }
+
+    @Test
+    void deleteBatch_deletesOwnedItemsAndReportsOthers() {
+        when(cartItemRepository.findIdsByUserIdAndIdIn(userId, List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        List<BatchItemResultDTO> results = cartItemService.deleteBatch(List.of(1L, 2L), userId);
+
+        verify(cartItemRepository).deleteByUserIdAndIdIn(userId, Set.of(1L));
+        assertEquals(BatchItemStatus.DELETED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(1).getStatus());
+        assertEquals("Cart item with id 2 not found", results.get(1).getMessage());
+    }
+
+    @Test
+    void deleteBatch_runsNoDelete_whenNoItemIsOwned() {
+        when(cartItemRepository.findIdsByUserIdAndIdIn(userId, List.of(5L))).thenReturn(List.of());
+
+        List<BatchItemResultDTO> results = cartItemService.deleteBatch(List.of(5L), userId);
+
+        assertEquals(BatchItemStatus.NOT_FOUND, results.getFirst().getStatus());
+        verify(cartItemRepository, never()).deleteByUserIdAndIdIn(any(), any());
+    }
+
 }
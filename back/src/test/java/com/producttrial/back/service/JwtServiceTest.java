@@ -1,5 +1,7 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.enums.Role;
+import com.producttrial.back.security.JwtClaims;
 import com.producttrial.back.service.serviceimpl.JwtServiceImpl;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -12,6 +14,10 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +33,7 @@ class JwtServiceTest {
         jwtService = new JwtServiceImpl();
         ReflectionTestUtils.setField(jwtService, "secret", secret);
         ReflectionTestUtils.setField(jwtService, "expiration", expiration);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
     }
 
     @Test
@@ -87,4 +94,75 @@ class JwtServiceTest {
         boolean result = jwtService.isValidToken("");
         assertFalse(result, "Empty token should not be valid");
     }
+
+    @Test
+    void parseToken_returnsClaimsOnValidToken() {
+        String token = jwtService.generateToken(1L);
+
+        Optional<JwtClaims> claims = jwtService.parseToken(token);
+
+        assertTrue(claims.isPresent(), "Claims should be present");
+        assertEquals("1", claims.get().userId(), "User id should be extracted from token");
+        assertTrue(claims.get().expiresAt().isAfter(Instant.now()), "Expiration should be in the future");
+    }
+
+    @Test
+    void parseToken_returnsSameClaimsOnSecondCall() {
+        String token = jwtService.generateToken(1L);
+
+        JwtClaims first = jwtService.parseToken(token).orElseThrow();
+        JwtClaims second = jwtService.parseToken(token).orElseThrow();
+
+        assertSame(first, second, "Second call should be served from the cache");
+    }
+
+    @Test
+    void parseToken_returnsEmptyOnInvalidOrEmptyToken() {
+        assertTrue(jwtService.parseToken("invalid").isEmpty(), "Invalid token should be rejected");
+        assertTrue(jwtService.parseToken("").isEmpty(), "Empty token should be rejected");
+        assertTrue(jwtService.parseToken(null).isEmpty(), "Null token should be rejected");
+    }
+
+    @Test
+    void parseToken_returnsEmptyOnExpiredToken() {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        String expired = Jwts.builder()
+                .subject("1")
+                .issuedAt(new Date(System.currentTimeMillis() - 20_000))
+                .expiration(new Date(System.currentTimeMillis() - 10_000))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+
+        assertTrue(jwtService.parseToken(expired).isEmpty(), "Expired token should be rejected");
+    }
+
+    @Test
+    void parseToken_returnsEmptyOnTokenSignedWithAnotherKey() {
+        SecretKey otherKey = Keys.hmacShaKeyFor("another-secret-key-32-chars-long!!!".getBytes(StandardCharsets.UTF_8));
+        String forged = Jwts.builder()
+                .subject("1")
+                .expiration(new Date(System.currentTimeMillis() + 10_000))
+                .signWith(otherKey, Jwts.SIG.HS256)
+                .compact();
+
+        assertTrue(jwtService.parseToken(forged).isEmpty(), "Token signed with another key should be rejected");
+    }
+
+    @Test
+    void generateToken_withRoles_rolesAreExtracted() {
+        String token = jwtService.generateToken(1L, List.of(Role.USER, Role.ADMIN));
+
+        JwtClaims claims = jwtService.parseToken(token).orElseThrow();
+
+        assertEquals(List.of("USER", "ADMIN"), claims.roles(), "Roles should be extracted from token");
+    }
+
+    @Test
+    void generateToken_withoutRoles_hasNoRoles() {
+        String token = jwtService.generateToken(1L);
+
+        JwtClaims claims = jwtService.parseToken(token).orElseThrow();
+
+        assertTrue(claims.roles().isEmpty(), "Token without roles should have no roles");
+    }
 }
@@ -0,0 +1,117 @@
+package com.producttrial.back.service;
+
+import com.producttrial.back.exception.PasswordHashingUnavailableException;
+import com.producttrial.back.service.serviceimpl.PasswordHashingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+    private PasswordHashingServiceImpl hashingService;
+
+    @AfterEach
+    void tearDown() {
+        hashingService.shutdown();
+    }
+
+    // Encodeur bloqué jusqu'à l'ouverture du verrou : occupe le thread de hachage
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed_" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals("hashed_" + rawPassword);
+            }
+        };
+    }
+
+    @Test
+    void hashAndMatches_runOnHashingExecutor() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), registry, 4, 1, 4, Duration.ofSeconds(5));
+
+        String hash = hashingService.hash("Mdp!1234");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(hashingService.matches("Mdp!1234", hash));
+        assertFalse(hashingService.matches("wrong", hash));
+        assertEquals(1, registry.get("security.password.hashing").tag("operation", "hash").timer().count());
+        assertEquals(2, registry.get("security.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void hash_whenQueueIsFull_failsFast() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hashingService = new PasswordHashingServiceImpl(blockingEncoder(started, release), new SimpleMeterRegistry(), 4, 1, 1, Duration.ofSeconds(5));
+        // Une tâche en cours sur l'unique thread, une autre dans la file
+        CompletableFuture<String> running = hashingService.hashAsync("a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = hashingService.hashAsync("b");
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> hashingService.hash("c"));
+        assertEquals(1, hashingService.rejectedTasks());
+
+        release.countDown();
+        assertEquals("hashed_a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed_b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void hashAsync_whenQueueIsFull_returnsFailedFuture() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hashingService = new PasswordHashingServiceImpl(blockingEncoder(started, release), new SimpleMeterRegistry(), 4, 1, 1, Duration.ofSeconds(5));
+        hashingService.hashAsync("a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        hashingService.hashAsync("b");
+
+        CompletableFuture<String> rejected = hashingService.hashAsync("c");
+
+        assertTrue(rejected.isCompletedExceptionally());
+        release.countDown();
+    }
+
+    @Test
+    void matches_whenNotDoneInTime_failsWithUnavailable() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hashingService = new PasswordHashingServiceImpl(blockingEncoder(started, release), new SimpleMeterRegistry(), 4, 1, 4, Duration.ofMillis(50));
+        hashingService.hashAsync("a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> hashingService.matches("b", "hashed_b"));
+        assertEquals(1, hashingService.timedOutTasks());
+        release.countDown();
+    }
+
+    @Test
+    void needsRehash_comparesCostWithConfiguredStrength() {
+        hashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), new SimpleMeterRegistry(), 10, 1, 4, Duration.ofSeconds(5));
+
+        assertFalse(hashingService.needsRehash("$2a$10$abcdefghijklmnopqrstuv"));
+        assertTrue(hashingService.needsRehash("$2a$04$abcdefghijklmnopqrstuv"));
+        assertTrue(hashingService.needsRehash("$2b$12$abcdefghijklmnopqrstuv"));
+        assertTrue(hashingService.needsRehash("{noop}plain"));
+        assertFalse(hashingService.needsRehash(null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.producttrial.back.service;
+
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.ImportFormat;
+import com.producttrial.back.enums.InventoryStatus;
+import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.service.serviceimpl.ProductExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductExportServiceImpl exportService;
+
+    private ProductDTO product1;
+    private ProductDTO product2;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ProductExportServiceImpl(productRepository, JsonMapper.builder().build());
+        product1 = ProductDTO.builder().id(1L).code("C1").name("Produit A").price(10.5D)
+                .inventoryStatus(InventoryStatus.INSTOCK).build();
+        product2 = ProductDTO.builder().id(2L).code("C2").name("Produit \"B\", grand").price(3D).quantity(4).build();
+    }
+
+    @Test
+    void exportProducts_csv_writesHeaderAndEscapedLines() throws IOException {
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(product1, product2));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = exportService.exportProducts(ImportFormat.CSV, output);
+
+        assertEquals(2, count);
+        assertEquals("""
+                code,name,description,image,category,price,quantity,internalReference,shellId,inventoryStatus,rating
+                C1,Produit A,,,,10.5,,,,INSTOCK,
+                C2,"Produit ""B"", grand",,,,3.0,4,,,,
+                """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportProducts_jsonLines_writesOneObjectPerLine() throws IOException {
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(product1, product2));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = exportService.exportProducts(ImportFormat.JSONL, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"code\":\"C1\""));
+        assertTrue(lines[1].contains("\"quantity\":4"));
+    }
+
+    @Test
+    void exportProducts_closesDatabaseStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(product1).onClose(() -> closed.set(true)));
+
+        exportService.exportProducts(ImportFormat.JSONL, new ByteArrayOutputStream());
+
+        assertTrue(closed.get(), "the cursor must be released once the export is written");
+    }
+}
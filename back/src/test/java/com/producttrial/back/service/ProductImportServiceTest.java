@@ -0,0 +1,179 @@
+package com.producttrial.back.service;
+
+import com.producttrial.back.cache.ProductCache;
+import com.producttrial.back.dto.ImportReportDTO;
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.enums.ImportFormat;
+import com.producttrial.back.enums.ProductChangeType;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.event.ProductImportFinishedEvent;
+import com.producttrial.back.event.ProductImportStartedEvent;
+import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.service.serviceimpl.ProductImportServiceImpl;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProductImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportServiceImpl(productRepository, productCache, eventPublisher, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().build());
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Les produits relus après l'upsert reçoivent un id dérivé de leur code
+        lenient().when(productRepository.findDtosByCodeIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                        .map(code -> ProductDTO.builder().id((long) code.hashCode()).code(code).name("N").price(1D).build())
+                        .toList());
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importProducts_csv_upsertsValidRowsByChunksAndReportsInvalidOnes() throws IOException {
+        when(productRepository.findExistingCodes(anyCollection())).thenReturn(List.of("C1"));
+        String csv = """
+                code,name,price,inventoryStatus,unknownColumn
+                C1,Produit 1,10.5,INSTOCK,x
+                C2,Produit 2,abc,,x
+                C3,,3,,x
+                C4,"Produit, 4",4,LOWSTOCK,x
+                C5,Produit 5,5,,x
+                """;
+
+        ImportReportDTO report = importService.importProducts(body(csv), ImportFormat.CSV);
+
+        assertEquals(5, report.getRows());
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals(2, report.getErrors().getFirst().getRow());
+        assertEquals("Invalid value for price: abc", report.getErrors().getFirst().getMessage());
+        assertEquals("C3", report.getErrors().get(1).getCode());
+        assertEquals("name: Name is required", report.getErrors().get(1).getMessage());
+        assertFalse(report.isErrorsTruncated());
+        // 3 lignes valides par lots de 2
+        verify(productRepository, times(2)).upsertByCode(anyList(), anyLong());
+        verify(productCache, times(2)).evictProducts(anyList());
+        // Les changements sont encadrés par le début et la fin de l'import
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(5)).publishEvent(events.capture());
+        assertInstanceOf(ProductImportStartedEvent.class, events.getAllValues().getFirst());
+        assertEquals(ProductChangeType.UPDATED, ((ProductChangedEvent) events.getAllValues().get(1)).type());
+        assertEquals(ProductChangeType.CREATED, ((ProductChangedEvent) events.getAllValues().get(2)).type());
+        assertInstanceOf(ProductChangedEvent.class, events.getAllValues().get(3));
+        assertInstanceOf(ProductImportFinishedEvent.class, events.getAllValues().getLast());
+    }
+
+    @Test
+    void importProducts_csv_rejectsFileWithoutRequiredColumns() throws IOException {
+        ImportReportDTO report = importService.importProducts(body("code,name\nC1,Produit 1\n"), ImportFormat.CSV);
+
+        assertEquals(1, report.getFailed());
+        assertEquals(0, report.getErrors().getFirst().getRow());
+        assertEquals("Missing required column(s): price", report.getErrors().getFirst().getMessage());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void importProducts_jsonLines_reportsInvalidJsonWithLineNumber() throws IOException {
+        String jsonl = """
+                {"code":"C1","name":"Produit 1","price":10}
+
+                {"code":"C2","name":
+                {"code":"C3","name":"Produit 3","price":-1}
+                """;
+
+        ImportReportDTO report = importService.importProducts(body(jsonl), ImportFormat.JSONL);
+
+        assertEquals(3, report.getRows());
+        assertEquals(1, report.getCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals(3, report.getErrors().getFirst().getRow());
+        assertTrue(report.getErrors().getFirst().getMessage().startsWith("Invalid JSON"));
+        assertEquals("price: Price must be greater than 0", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void importProducts_reportsEveryRowOfChunkRejectedByDatabase() throws IOException {
+        doThrow(new DataIntegrityViolationException("boom")).when(productRepository).upsertByCode(anyList(), anyLong());
+
+        ImportReportDTO report = importService.importProducts(body("code,name,price\nC1,P1,1\nC2,P2,2\n"), ImportFormat.CSV);
+
+        assertEquals(2, report.getFailed());
+        assertEquals(0, report.getCreated());
+        assertTrue(report.getErrors().getFirst().getMessage().startsWith("Rejected by the database"));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+        verify(eventPublisher).publishEvent(any(ProductImportFinishedEvent.class));
+    }
+
+    @Test
+    void importProducts_retriesRejectedChunkToRejectOnlyFaultyRows() throws IOException {
+        ReflectionTestUtils.setField(importService, "chunkSize", 4);
+        doAnswer(invocation -> {
+            if (invocation.<List<ProductDTO>>getArgument(0).stream().anyMatch(product -> "BAD".equals(product.getCode()))) {
+                throw new DataIntegrityViolationException("boom");
+            }
+            return null;
+        }).when(productRepository).upsertByCode(anyList(), anyLong());
+
+        ImportReportDTO report = importService.importProducts(
+                body("code,name,price\nC1,P1,1\nC2,P2,2\nBAD,P3,3\nC4,P4,4\n"), ImportFormat.CSV);
+
+        assertEquals(3, report.getCreated());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().getFirst().getRow());
+        assertEquals("BAD", report.getErrors().getFirst().getCode());
+        assertTrue(report.getErrors().getFirst().getMessage().startsWith("Rejected by the database"));
+    }
+
+    @Test
+    void importProducts_reportsValuesTooLongForTheSchema() throws IOException {
+        String jsonl = "{\"code\":\"C1\",\"name\":\"Produit 1\",\"price\":10,\"description\":\"" + "x".repeat(2001) + "\"}\n";
+
+        ImportReportDTO report = importService.importProducts(body(jsonl), ImportFormat.JSONL);
+
+        assertEquals(1, report.getFailed());
+        assertEquals("description: Description must be at most 2000 characters", report.getErrors().getFirst().getMessage());
+        verify(productRepository, never()).upsertByCode(anyList(), anyLong());
+    }
+}
@@ -1,19 +1,45 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.cache.ProductCache;
+import com.producttrial.back.cache.ProductCountEstimate;
+import com.producttrial.back.dto.ListingPageDTO;
+import com.producttrial.back.dto.ProductDTO;
+import com.producttrial.back.dto.ProductFacetsDTO;
+import com.producttrial.back.dto.ProductFilterDTO;
+import com.producttrial.back.dto.ProductSearchHitDTO;
+import com.producttrial.back.dto.ProductSuggestionDTO;
 import com.producttrial.back.entity.Product;
+import com.producttrial.back.enums.CountMode;
+import com.producttrial.back.enums.InventoryStatus;
+import com.producttrial.back.enums.ProductChangeType;
+import com.producttrial.back.event.ProductChangedEvent;
+import com.producttrial.back.exception.InvalidFacetRequestException;
 import com.producttrial.back.repository.ProductRepository;
+import com.producttrial.back.repository.ProductRepositoryCustom.FacetCounts;
+import com.producttrial.back.search.ProductSearchIndex;
+import com.producttrial.back.search.ProductSuggestIndex;
 import com.producttrial.back.service.serviceimpl.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +48,24 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCountEstimate productCountEstimate;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -141,6 +185,284 @@ class ProductServiceTest {
     void deleteAll_callsRepositoryDeleteAll() {
         productService.deleteAll();
         verify(productRepository, times(1)).deleteAll();
+        verify(productCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void save_evictsProductFromCache() {
+        when(productRepository.save(any(Product.class)))
+                .thenAnswer(invocation -> {
+                    Product p = invocation.getArgument(0);
+                    p.setId(1L);
+                    return p;
+                });
+
+        productService.save(Product.builder().name("X").code("C1").price(10.00D).build());
+
+        verify(productCache, times(1)).evictProduct(1L);
     }
 
+    @Test
+    void update_evictsProductFromCache() {
+        Product product = Product.builder().id(1L).name("Old").code("OLD").price(5.0D).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+
+        productService.update(1L, Product.builder().name("X2").build());
+
+        verify(productCache, times(1)).evictProduct(1L);
+    }
+
+    @Test
+    void delete_evictsProductFromCache() {
+        when(productRepository.existsById(5L)).thenReturn(true);
+
+        productService.delete(5L);
+
+        verify(productCache, times(1)).evictProduct(5L);
+    }
+
+    @Test
+    void delete_publishesDeletedEvent() {
+        when(productRepository.existsById(5L)).thenReturn(true);
+
+        productService.delete(5L);
+
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(ProductChangeType.DELETED, 5L, null));
+    }
+
+    @Test
+    void deleteAll_publishesAllDeletedEvent() {
+        productService.deleteAll();
+
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.allDeleted());
+    }
+
+    @Test
+    void getProductById_readsThroughCache() {
+        Product product = Product.builder().id(1L).name("X").code("C1").price(10.00D).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productCache.getProduct(eq(1L), any())).thenAnswer(invocation -> {
+            Function<Long, Optional<ProductDTO>> loader = invocation.getArgument(1);
+            return loader.apply(1L);
+        });
+
+        Optional<ProductDTO> result = productService.getProductById(1L);
+
+        assertTrue(result.isPresent(), "result should be present");
+        assertEquals("C1", result.get().getCode(), "code should be C1");
+    }
+
+    @Test
+    void getProductListing_countNone_doesNotCount() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, true));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.NONE, null);
+
+        assertNull(result.getTotalElements(), "total should not be computed");
+        assertTrue(result.isHasNext(), "there should be a next page");
+        verify(productRepository, never()).count();
+        verifyNoInteractions(productCountEstimate);
+    }
+
+    @Test
+    void getProductListing_countEstimate_usesEstimate() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, true));
+        when(productCountEstimate.get()).thenReturn(42L);
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE, null);
+
+        assertEquals(42L, result.getTotalElements(), "total should come from the estimate");
+        assertFalse(result.isTotalExact(), "total should be flagged as approximate");
+    }
+
+    @Test
+    void getProductListing_lastPage_returnsExactTotal() {
+        Pageable pageable = PageRequest.of(2, 10);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, false));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE, null);
+
+        assertEquals(21L, result.getTotalElements(), "total should be derived from the last page");
+        assertTrue(result.isTotalExact(), "total should be flagged as exact");
+        verifyNoInteractions(productCountEstimate);
+    }
+
+    @Test
+    void getProductListing_pastLastPage_doesNotReportOffsetAsExactTotal() {
+        Pageable pageable = PageRequest.of(5, 10);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(productCountEstimate.get()).thenReturn(21L);
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE, null);
+
+        assertEquals(21L, result.getTotalElements(), "total should fall back to the estimate");
+        assertFalse(result.isTotalExact(), "an empty page past the end gives no exact total");
+    }
+
+    @Test
+    void getProductListing_pastLastPageFiltered_returnsNoTotal() {
+        Pageable pageable = PageRequest.of(5, 10);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE,
+                ProductFilterDTO.builder().minRating(4.0).build());
+
+        assertNull(result.getTotalElements(), "total should stay unknown");
+        assertFalse(result.isTotalExact());
+    }
+
+    @Test
+    void getProductListing_emptyFirstPage_returnsExactZero() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE, null);
+
+        assertEquals(0L, result.getTotalElements());
+        assertTrue(result.isTotalExact());
+    }
+
+    @Test
+    void getProductListing_countNoneOnLastPage_returnsNoTotal() {
+        Pageable pageable = PageRequest.of(2, 10);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, false));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.NONE, null);
+
+        assertNull(result.getTotalElements(), "count=NONE should never return a total");
+        assertFalse(result.isTotalExact());
+        assertFalse(result.isHasNext());
+    }
+
+    @Test
+    void getAllProducts_withoutCriteria_usesCache() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productCache.getPage(eq(pageable), any())).thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        productService.getAllProducts(new ProductFilterDTO(), pageable);
+
+        verify(productCache).getPage(eq(pageable), any());
+        verify(productRepository, never()).findDtoPage(any(), any());
+    }
+
+    @Test
+    void getAllProducts_withCriteria_queriesRepositoryWithoutCache() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .category("Fitness")
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .maxPrice(50.0)
+                .build();
+        ProductDTO product = ProductDTO.builder().id(1L).code("C1").name("X").category("Fitness").price(10.00D).build();
+        when(productRepository.findDtoPage(any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(product), pageable, 1));
+
+        var result = productService.getAllProducts(filter, pageable);
+
+        assertEquals(1, result.getTotalElements(), "total should come from the filtered query");
+        assertEquals("C1", result.getContent().get(0).getCode(), "code should be C1");
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void getProductListing_filteredEstimate_doesNotUseEstimate() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findDtoSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(ProductDTO.builder().id(1L).build()), pageable, true));
+
+        ListingPageDTO<ProductDTO> result = productService.getProductListing(pageable, CountMode.ESTIMATE,
+                ProductFilterDTO.builder().minRating(4.0).build());
+
+        assertNull(result.getTotalElements(), "catalog estimate should not be used for a filtered listing");
+        verifyNoInteractions(productCountEstimate);
+    }
+
+    @Test
+    void searchProducts_delegatesToIndexWithoutRepository() {
+        when(productSearchIndex.search("yoga", 5))
+                .thenReturn(List.of(ProductSearchHitDTO.builder().id(3L).score(1.5).build()));
+
+        List<ProductSearchHitDTO> result = productService.searchProducts("yoga", 5);
+
+        assertEquals(1, result.size(), "one hit should be returned");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void suggestProducts_delegatesToIndexWithoutRepository() {
+        when(productSuggestIndex.suggest("ta", 3))
+                .thenReturn(List.of(ProductSuggestionDTO.builder().id(2L).name("Tapis").build()));
+
+        List<ProductSuggestionDTO> result = productService.suggestProducts("ta", 3);
+
+        assertEquals(1, result.size(), "one suggestion should be returned");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getFacets_withCriteria_buildsEachFacet() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().maxPrice(100.0).build();
+        when(productRepository.countFacets(any(), eq(10.0), eq(1.0), eq(1000L))).thenReturn(new FacetCounts(
+                List.of(new Object[]{"Fitness", 4L}, new Object[]{null, 2L}),
+                List.of(new Object[]{InventoryStatus.INSTOCK, 5L}, new Object[]{InventoryStatus.LOWSTOCK, 1L}),
+                List.of(new Object[]{2.0, 1L}, new Object[]{1.0, 5L}),
+                List.<Object[]>of(new Object[]{4.0, 5L}),
+                12.0, 25.0));
+
+        ProductFacetsDTO facets = productService.getFacets(filter, 10.0);
+
+        assertEquals(6, facets.getTotalElements(), "total should sum the category counts");
+        assertEquals("Fitness", facets.getCategories().get(0).getValue(), "most frequent category first");
+        assertEquals(4, facets.getCategories().get(0).getCount(), "Fitness count should be 4");
+        assertNull(facets.getCategories().get(1).getValue(), "products without category should be counted");
+        assertEquals("INSTOCK", facets.getInventoryStatuses().get(0).getValue(), "INSTOCK should come first");
+        assertEquals(5, facets.getInventoryStatuses().get(0).getCount(), "INSTOCK count should be 5");
+        assertEquals(2, facets.getPriceHistogram().size(), "two price buckets");
+        assertEquals(10.0, facets.getPriceHistogram().get(0).getFrom(), "first bucket starts at 10");
+        assertEquals(20.0, facets.getPriceHistogram().get(0).getTo(), "first bucket ends at 20");
+        assertEquals(5, facets.getPriceHistogram().get(0).getCount(), "first bucket count should be 5");
+        assertEquals(1, facets.getRatingHistogram().size(), "unrated products have no rating bucket");
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void getFacets_withoutCriteria_usesCache() {
+        ProductFacetsDTO cached = ProductFacetsDTO.builder().totalElements(42).build();
+        when(productCache.getFacets(eq(10.0), any())).thenReturn(cached);
+
+        assertSame(cached, productService.getFacets(null, 10.0), "unfiltered facets should come from the cache");
+        verify(productRepository, never()).countFacets(any(), anyDouble(), anyDouble(), anyLong());
+    }
+
+    @Test
+    void getFacets_tooManyPriceBuckets_throws() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().category("Fitness").build();
+        // Prix de 0 à 50 avec des tranches de 0.01 : 5001 tranches, aucune renvoyée par la requête
+        when(productRepository.countFacets(any(), eq(0.01), eq(1.0), eq(1000L))).thenReturn(new FacetCounts(
+                List.<Object[]>of(new Object[]{"Fitness", 2L}), List.of(), List.of(), List.of(), 0.0, 50.0));
+
+        assertThrows(InvalidFacetRequestException.class, () -> productService.getFacets(filter, 0.01));
+    }
+
+    @Test
+    void getFacets_noPricedProduct_skipsBucketLimit() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().category("Nothing").build();
+        when(productRepository.countFacets(any(), eq(0.01), eq(1.0), eq(1000L)))
+                .thenReturn(new FacetCounts(List.of(), List.of(), List.of(), List.of(), null, null));
+
+        ProductFacetsDTO facets = productService.getFacets(filter, 0.01);
+
+        assertEquals(0, facets.getTotalElements(), "no matching product");
+        assertTrue(facets.getPriceHistogram().isEmpty(), "no price bucket");
+    }
 }
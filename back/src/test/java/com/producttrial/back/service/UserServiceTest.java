@@ -1,17 +1,20 @@
 package com.producttrial.back.service;
 
 import com.producttrial.back.entity.User;
+import com.producttrial.back.exception.PasswordHashingUnavailableException;
 import com.producttrial.back.repository.UserRepository;
 import com.producttrial.back.service.serviceimpl.UserServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,7 +25,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private IPasswordHashingService passwordHashingService;
+    @Mock
+    private Executor applicationTaskExecutor;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -83,7 +88,7 @@ class UserServiceTest {
                 .password("test!123")
                 .build();
 
-        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed_" + invocation.getArgument(0));
+        when(passwordHashingService.hash(anyString())).thenAnswer(invocation -> "hashed_" + invocation.getArgument(0));
         when(userRepository.save(any(User.class)))
                 .thenAnswer(invocation -> {
                     User u = invocation.getArgument(0);
@@ -150,4 +155,34 @@ class UserServiceTest {
         verify(userRepository, times(1)).deleteAll();
     }
 
+
+    @Test
+    void rehashPassword_storesNewHashUnlessPasswordChanged() {
+        User user = User.builder().id(1L).password("old_hash").build();
+        when(passwordHashingService.hashAsync("test!123")).thenReturn(CompletableFuture.completedFuture("new_hash"));
+        when(userRepository.updatePasswordIfUnchanged(1L, "old_hash", "new_hash")).thenReturn(1);
+
+        userService.rehashPassword(user, "test!123");
+
+        // La mise à jour est confiée à l'exécuteur, pas faite sur le thread du hachage
+        ArgumentCaptor<Runnable> update = ArgumentCaptor.forClass(Runnable.class);
+        verify(applicationTaskExecutor).execute(update.capture());
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+
+        update.getValue().run();
+
+        verify(userRepository).updatePasswordIfUnchanged(1L, "old_hash", "new_hash");
+    }
+
+    @Test
+    void rehashPassword_whenHashingSaturated_keepsOldHash() {
+        User user = User.builder().id(1L).password("old_hash").build();
+        when(passwordHashingService.hashAsync("test!123"))
+                .thenReturn(CompletableFuture.failedFuture(new PasswordHashingUnavailableException("saturated")));
+
+        userService.rehashPassword(user, "test!123");
+
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+        verifyNoInteractions(applicationTaskExecutor);
+    }
 }
@@ -1,19 +1,23 @@
 package com.producttrial.back.service;
 
+import com.producttrial.back.dto.BatchItemResultDTO;
 import com.producttrial.back.dto.WishlistItemDTO;
 import com.producttrial.back.entity.Product;
 import com.producttrial.back.entity.User;
 import com.producttrial.back.entity.WishlistItem;
+import com.producttrial.back.enums.BatchItemStatus;
 import com.producttrial.back.exception.ProductNotFoundException;
 import com.producttrial.back.exception.UserNotFoundException;
 import com.producttrial.back.exception.WishlistItemNotFoundException;
 import com.producttrial.back.repository.WishlistItemRepository;
 import com.producttrial.back.service.serviceimpl.WishlistItemServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -22,9 +26,12 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +43,9 @@ class WishlistItemServiceTest {
     @Mock
     private IProductService productService;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private WishlistItemServiceImpl wishlistItemService;
 
@@ -163,13 +173,13 @@ class WishlistItemServiceTest {
     }
 
     @Test
-    void getWishlist_returnsMappedPage() {
+    void getWishlist_returnsProjectedPage() {
         Pageable pageable = PageRequest.of(0, 10);
 
-        WishlistItem wishlistItem = WishlistItem.builder().id(1L).build();
-        Page<WishlistItem> page = new PageImpl<>(List.of(wishlistItem));
+        WishlistItemDTO wishlistItem = WishlistItemDTO.builder().id(1L).productId(2L).build();
+        Page<WishlistItemDTO> page = new PageImpl<>(List.of(wishlistItem));
 
-        when(wishlistItemRepository.findByUserId(pageable, userId)).thenReturn(page);
+        when(wishlistItemRepository.findDtosByUserId(userId, pageable)).thenReturn(page);
 
         Page<WishlistItemDTO> result = wishlistItemService.getWishlist(pageable, userId);
 
@@ -178,9 +188,9 @@ class WishlistItemServiceTest {
     }
 
     @Test
-    void getWishlistItemById_returnsMappedDto_whenItemExists() {
-        WishlistItem item = WishlistItem.builder().id(itemId).build();
-        when(wishlistItemRepository.findByIdAndUserId(itemId, userId)).thenReturn(Optional.of(item));
+    void getWishlistItemById_returnsProjectedDto_whenItemExists() {
+        WishlistItemDTO item = WishlistItemDTO.builder().id(itemId).build();
+        when(wishlistItemRepository.findDtoByIdAndUserId(itemId, userId)).thenReturn(Optional.of(item));
 
         Optional<WishlistItemDTO> dto = wishlistItemService.getWishlistItemById(itemId, userId);
 
@@ -190,10 +200,52 @@ class WishlistItemServiceTest {
 
     @Test
     void getWishlistItemById_returnsEmpty_whenItemDoesNotExist() {
-        when(wishlistItemRepository.findByIdAndUserId(itemId, userId)).thenReturn(Optional.empty());
+        when(wishlistItemRepository.findDtoByIdAndUserId(itemId, userId)).thenReturn(Optional.empty());
 
         Optional<WishlistItemDTO> dto = wishlistItemService.getWishlistItemById(itemId, userId);
 
         assertTrue(dto.isEmpty());
     }
+
+    @Test
+    void saveBatch_addsMissingProductsOnly() {
+        Product other = Product.builder().id(2L).build();
+        when(userService.findById(userId)).thenReturn(Optional.of(user));
+        when(productService.findExistingIds(Set.of(1L, 2L, 3L))).thenReturn(Set.of(1L, 2L));
+        when(wishlistItemRepository.findByUserIdAndProductIdIn(eq(userId), any()))
+                .thenReturn(List.of(WishlistItem.builder().id(4L).product(product).build()));
+        when(wishlistItemRepository.addAll(eq(userId), eq(List.of(2L)), anyLong()))
+                .thenReturn(List.of(WishlistItem.builder().id(5L).product(other).build()));
+
+        List<BatchItemResultDTO> results = wishlistItemService.saveBatch(List.of(
+                WishlistItemDTO.builder().productId(1L).build(),
+                WishlistItemDTO.builder().productId(2L).build(),
+                WishlistItemDTO.builder().productId(3L).build()), userId);
+
+        assertEquals(BatchItemStatus.ALREADY_EXISTS, results.get(0).getStatus());
+        assertEquals(4L, results.get(0).getId());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(5L, results.get(1).getId());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(2).getStatus());
+    }
+
+    @Test
+    void saveBatch_throwsUserNotFoundException_whenUserDoesNotExist() {
+        when(userService.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> wishlistItemService.saveBatch(List.of(wishlistItemDTO), userId));
+        verify(wishlistItemRepository, never()).addAll(any(), any(), anyLong());
+    }
+
+    @Test
+    void deleteBatch_deletesOwnedItemsAndReportsOthers() {
+        when(wishlistItemRepository.findIdsByUserIdAndIdIn(userId, List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        List<BatchItemResultDTO> results = wishlistItemService.deleteBatch(List.of(1L, 2L), userId);
+
+        verify(wishlistItemRepository).deleteByUserIdAndIdIn(userId, Set.of(2L));
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.DELETED, results.get(1).getStatus());
+    }
+
 }